@@ -0,0 +1,41 @@
+package com.polatholding.procurementsystem.config.security;
+
+import com.polatholding.procurementsystem.dto.CurrentUserDto;
+import com.polatholding.procurementsystem.service.UserAuthCacheService;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+/**
+ * The authenticated user for the current HTTP request, resolved once per request. Ids and roles
+ * come from the user auth cache, not the session principal, so a role revoked by an admin stops
+ * counting on the next request instead of at the next login. Only reachable while a request is
+ * bound to the thread; use CurrentUserService from code that may also run elsewhere.
+ */
+@Component
+@RequestScope
+public class CurrentUserContext {
+
+    private final UserAuthCacheService userAuthCacheService;
+
+    private CurrentUserDto currentUser;
+
+    public CurrentUserContext(UserAuthCacheService userAuthCacheService) {
+        this.userAuthCacheService = userAuthCacheService;
+    }
+
+    // Null when the request is anonymous, the principal is not a CustomUserDetails or the user is gone
+    public CurrentUserDto getCurrentUser() {
+        if (currentUser == null) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails details) {
+                currentUser = userAuthCacheService.findByEmail(details.getUsername())
+                        .map(user -> new CurrentUserDto(user.getUserId(), user.getEmail(), user.getDepartmentId(),
+                                user.getRoleIdsByName()))
+                        .orElse(null);
+            }
+        }
+        return currentUser;
+    }
+}
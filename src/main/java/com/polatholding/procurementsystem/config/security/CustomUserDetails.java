@@ -3,17 +3,38 @@ package com.polatholding.procurementsystem.config.security;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import java.util.Collection;
+import java.util.Map;
 
 public class CustomUserDetails extends User {
 
     private final Integer userId;
+    private final Integer departmentId;
+    private final Map<String, Integer> roleIdsByName;
+    private final boolean procurementStaff; // derived at login, like the authorities
 
-    public CustomUserDetails(String username, String password, Collection<? extends GrantedAuthority> authorities, Integer userId) {
+    public CustomUserDetails(String username, String password, Collection<? extends GrantedAuthority> authorities,
+                             Integer userId, Integer departmentId, Map<String, Integer> roleIdsByName, boolean procurementStaff) {
         super(username, password, authorities);
         this.userId = userId;
+        this.departmentId = departmentId;
+        this.roleIdsByName = roleIdsByName;
+        this.procurementStaff = procurementStaff;
     }
 
     public Integer getUserId() {
         return userId;
     }
-}
\ No newline at end of file
+
+    public Integer getDepartmentId() {
+        return departmentId;
+    }
+
+    // Role name to RoleID, for queries that filter on role ids
+    public Map<String, Integer> getRoleIdsByName() {
+        return roleIdsByName;
+    }
+
+    public boolean isProcurementStaff() {
+        return procurementStaff;
+    }
+}
@@ -1,34 +1,29 @@
 package com.polatholding.procurementsystem.config.security;
 
-import com.polatholding.procurementsystem.model.User;
-import com.polatholding.procurementsystem.repository.UserRepository;
+import com.polatholding.procurementsystem.dto.AuthUserSnapshotDto;
+import com.polatholding.procurementsystem.service.UserAuthCacheService;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 @Component("securityHelper")
 public class SecurityHelper {
 
-    private final UserRepository userRepository;
+    private final UserAuthCacheService userAuthCacheService;
 
-    public SecurityHelper(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public SecurityHelper(UserAuthCacheService userAuthCacheService) {
+        this.userAuthCacheService = userAuthCacheService;
     }
 
+    // Runs on every @PreAuthorize check, so it reads the flag stored at login instead of the database
     public boolean isProcurementStaff(Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             return false;
         }
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email).orElse(null);
-        if (user == null) {
-            return false;
+        if (authentication.getPrincipal() instanceof CustomUserDetails details) {
+            return details.isProcurementStaff();
         }
-        boolean isProcurementManager = user.getRoles().stream()
-                .anyMatch(r -> "ProcurementManager".equals(r.getRoleName()));
-        boolean isProcurementEmployee = user.getRoles().stream()
-                .anyMatch(r -> "Employee".equals(r.getRoleName())) &&
-                user.getDepartment() != null &&
-                "Procurement".equals(user.getDepartment().getDepartmentName());
-        return isProcurementManager || isProcurementEmployee;
+        return userAuthCacheService.findByEmail(authentication.getName())
+                .map(AuthUserSnapshotDto::isProcurementStaff)
+                .orElse(false);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,67 @@
+package com.polatholding.procurementsystem.controller;
+
+import com.polatholding.procurementsystem.dto.ApiErrorDto;
+import com.polatholding.procurementsystem.dto.BulkDecisionRequestDto;
+import com.polatholding.procurementsystem.dto.BulkDecisionResultDto;
+import com.polatholding.procurementsystem.service.ApprovalService;
+import com.polatholding.procurementsystem.service.PurchaseRequestService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.security.Principal;
+
+@RestController
+@RequestMapping("/api/approvals")
+public class ApprovalApiController {
+
+    private static final Logger log = LoggerFactory.getLogger(ApprovalApiController.class);
+
+    private final PurchaseRequestService purchaseRequestService;
+    private final ApprovalService approvalService;
+
+    public ApprovalApiController(PurchaseRequestService purchaseRequestService, ApprovalService approvalService) {
+        this.purchaseRequestService = purchaseRequestService;
+        this.approvalService = approvalService;
+    }
+
+    // Used by the sidebar badge; a single COUNT over the approval inbox
+    @GetMapping("/count")
+    @PreAuthorize("!hasRole('Auditor')")
+    public ResponseEntity<Long> getPendingApprovalCount(Principal principal) {
+        return ResponseEntity.ok(purchaseRequestService.countPendingApprovalsForUser(principal.getName()));
+    }
+
+    // Approves or rejects a list of requests; the response has one result per id, in request order.
+    // Item failures are reported in the result; an ApiErrorDto means nothing in the batch was applied.
+    @PostMapping("/bulk")
+    @PreAuthorize("!hasRole('Auditor')")
+    public ResponseEntity<?> processBulkDecision(@RequestBody BulkDecisionRequestDto body, Principal principal) {
+        try {
+            BulkDecisionResultDto result = approvalService.processBulkDecision(body.getRequestIds(), principal.getName(),
+                    body.getDecision(), body.getReason());
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (ConcurrencyFailureException e) {
+            // Lock timeouts and deadlocks on the batch's budget codes; the whole batch can be retried
+            log.warn("Bulk {} by {} hit a lock conflict: {}", body.getDecision(), principal.getName(), e.getMessage());
+            return error(HttpStatus.CONFLICT, "The requests are being decided by someone else. Please try again.");
+        } catch (RuntimeException e) {
+            log.error("Bulk {} by {} failed", body.getDecision(), principal.getName(), e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "The bulk decision could not be processed. No request was changed.");
+        }
+    }
+
+    private static ResponseEntity<ApiErrorDto> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(new ApiErrorDto(status.value(), status.getReasonPhrase(), message));
+    }
+}
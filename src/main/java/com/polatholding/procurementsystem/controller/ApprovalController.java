@@ -4,6 +4,7 @@ import com.polatholding.procurementsystem.dto.PurchaseRequestDto;
 import com.polatholding.procurementsystem.service.ApprovalService;
 import com.polatholding.procurementsystem.service.PurchaseRequestService;
 import com.polatholding.procurementsystem.service.RequestHistoryService;
+import org.springframework.data.domain.Page;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -14,7 +15,6 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.security.Principal;
-import java.util.List;
 
 @Controller
 @RequestMapping("/approvals")
@@ -33,10 +33,13 @@ public class ApprovalController {
 
     @GetMapping
     @PreAuthorize("!hasRole('Auditor')")
-    public String showMyApprovals(Model model, Principal principal) {
+    public String showMyApprovals(@RequestParam(defaultValue = "0") int page,
+                                  @RequestParam(defaultValue = "25") int size,
+                                  Model model, Principal principal) {
         String userEmail = principal.getName();
-        List<PurchaseRequestDto> approvalRequests = purchaseRequestService.getPendingApprovalsForUser(userEmail);
-        model.addAttribute("approvalRequests", approvalRequests);
+        Page<PurchaseRequestDto> approvalPage = purchaseRequestService.getPendingApprovalsForUser(userEmail, page, size);
+        model.addAttribute("approvalRequests", approvalPage.getContent());
+        model.addAttribute("approvalPage", approvalPage);
         return "approvals";
     }
 
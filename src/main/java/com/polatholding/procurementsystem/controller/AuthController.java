@@ -1,10 +1,13 @@
 package com.polatholding.procurementsystem.controller;
 
 import com.polatholding.procurementsystem.dto.PurchaseRequestDto;
+import com.polatholding.procurementsystem.dto.RequestListFilterDto;
+import com.polatholding.procurementsystem.dto.RequestPageDto;
 import com.polatholding.procurementsystem.service.PurchaseRequestService;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.security.Principal;
@@ -25,15 +28,27 @@ public class AuthController {
     }
 
     @GetMapping("/dashboard")
-    public String dashboard(@RequestParam(name = "q", required = false) String query, Model model, Principal principal) {
+    public String dashboard(@RequestParam(name = "q", required = false) String query,
+                            @ModelAttribute("filter") RequestListFilterDto filter,
+                            Model model, Principal principal) {
         List<PurchaseRequestDto> requests;
         if (query != null && !query.trim().isEmpty()) {
             // If there's a search query, use the search method
             requests = purchaseRequestService.searchUserRequests(principal.getName(), query);
             model.addAttribute("searchTerm", query);
         } else {
-            // Otherwise, get requests normally
-            requests = purchaseRequestService.getRequestsForUser(principal.getName());
+            // Otherwise, read one keyset page; the cursor comes from the previous page's "Next" link
+            RequestPageDto page;
+            try {
+                page = purchaseRequestService.getRequestPageForUser(principal.getName(), filter);
+            } catch (IllegalArgumentException e) {
+                model.addAttribute("errorMessage", e.getMessage());
+                filter.setCursor(null);
+                page = purchaseRequestService.getRequestPageForUser(principal.getName(), filter);
+            }
+            requests = page.getRequests();
+            model.addAttribute("nextCursor", page.getNextCursor());
+            model.addAttribute("filterOptions", purchaseRequestService.getRequestListFilterOptions());
         }
         model.addAttribute("requests", requests);
         return "dashboard";
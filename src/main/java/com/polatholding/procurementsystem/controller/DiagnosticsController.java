@@ -0,0 +1,186 @@
+package com.polatholding.procurementsystem.controller;
+
+import com.polatholding.procurementsystem.dto.ApiErrorDto;
+import com.polatholding.procurementsystem.dto.ApprovalWorkflowDto;
+import com.polatholding.procurementsystem.dto.CacheStatsDto;
+import com.polatholding.procurementsystem.dto.DatabaseProbeReportDto;
+import com.polatholding.procurementsystem.dto.FileBlobStatsDto;
+import com.polatholding.procurementsystem.dto.GrossAmountStatsDto;
+import com.polatholding.procurementsystem.dto.OutboxStatsDto;
+import com.polatholding.procurementsystem.dto.StartupStatsDto;
+import com.polatholding.procurementsystem.dto.UnreadCounterReconciliationDto;
+import com.polatholding.procurementsystem.service.ApprovalWorkflowService;
+import com.polatholding.procurementsystem.service.ApproverDirectoryService;
+import com.polatholding.procurementsystem.service.BudgetReservationService;
+import com.polatholding.procurementsystem.service.ExchangeRateService;
+import com.polatholding.procurementsystem.service.FileBlobService;
+import com.polatholding.procurementsystem.service.GrossAmountService;
+import com.polatholding.procurementsystem.service.NotificationPushService;
+import com.polatholding.procurementsystem.service.NotificationService;
+import com.polatholding.procurementsystem.service.OutboxService;
+import com.polatholding.procurementsystem.service.ReferenceDataService;
+import com.polatholding.procurementsystem.service.UserAuthCacheService;
+import com.polatholding.procurementsystem.service.UtilityService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/diagnostics")
+@PreAuthorize("hasRole('Admin')")
+public class DiagnosticsController {
+
+    private final ReferenceDataService referenceDataService;
+    private final GrossAmountService grossAmountService;
+    private final ExchangeRateService exchangeRateService;
+    private final NotificationPushService notificationPushService;
+    private final NotificationService notificationService;
+    private final OutboxService outboxService;
+    private final UserAuthCacheService userAuthCacheService;
+    private final UtilityService utilityService;
+    private final FileBlobService fileBlobService;
+    private final BudgetReservationService budgetReservationService;
+    private final ApprovalWorkflowService approvalWorkflowService;
+    private final ApproverDirectoryService approverDirectoryService;
+
+    public DiagnosticsController(ReferenceDataService referenceDataService,
+                                 GrossAmountService grossAmountService,
+                                 ExchangeRateService exchangeRateService,
+                                 NotificationPushService notificationPushService,
+                                 NotificationService notificationService,
+                                 OutboxService outboxService,
+                                 UserAuthCacheService userAuthCacheService,
+                                 UtilityService utilityService,
+                                 FileBlobService fileBlobService,
+                                 BudgetReservationService budgetReservationService,
+                                 ApprovalWorkflowService approvalWorkflowService,
+                                 ApproverDirectoryService approverDirectoryService) {
+        this.referenceDataService = referenceDataService;
+        this.grossAmountService = grossAmountService;
+        this.exchangeRateService = exchangeRateService;
+        this.notificationPushService = notificationPushService;
+        this.notificationService = notificationService;
+        this.outboxService = outboxService;
+        this.userAuthCacheService = userAuthCacheService;
+        this.utilityService = utilityService;
+        this.fileBlobService = fileBlobService;
+        this.budgetReservationService = budgetReservationService;
+        this.approvalWorkflowService = approvalWorkflowService;
+        this.approverDirectoryService = approverDirectoryService;
+    }
+
+    @GetMapping("/cache-stats")
+    public ResponseEntity<List<CacheStatsDto>> getCacheStats() {
+        List<CacheStatsDto> stats = new ArrayList<>(referenceDataService.getCacheStats());
+        stats.add(userAuthCacheService.getCacheStats());
+        stats.add(approverDirectoryService.getCacheStats());
+        return ResponseEntity.ok(stats);
+    }
+
+    @PostMapping("/cache-stats/clear")
+    public ResponseEntity<Void> clearReferenceDataCache() {
+        referenceDataService.evictAll();
+        userAuthCacheService.evictAll();
+        approverDirectoryService.evictAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/gross-amount")
+    public ResponseEntity<GrossAmountStatsDto> getGrossAmountStats() {
+        return ResponseEntity.ok(grossAmountService.getStats());
+    }
+
+    @PostMapping("/gross-amount/reload")
+    public ResponseEntity<GrossAmountStatsDto> reloadGrossAmountRate() {
+        return ResponseEntity.ok(grossAmountService.reload());
+    }
+
+    // Rebuilds the in-memory rate series after rates were changed directly in the database
+    @PostMapping("/exchange-rates/reload")
+    public ResponseEntity<Void> reloadExchangeRates() {
+        exchangeRateService.reloadRates();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/sse-connections")
+    public ResponseEntity<Integer> getOpenSseConnections() {
+        return ResponseEntity.ok(notificationPushService.getOpenConnectionCount());
+    }
+
+    // Compares in-memory unread counters with the Notifications table; repair=true drops drifted counters
+    @PostMapping("/unread-counters/reconcile")
+    public ResponseEntity<UnreadCounterReconciliationDto> reconcileUnreadCounters(@RequestParam(defaultValue = "false") boolean repair) {
+        return ResponseEntity.ok(notificationService.reconcileUnreadCounters(repair));
+    }
+
+    // Outbox lag: pending events, age of the oldest one, and the last dispatched batch
+    @GetMapping("/outbox")
+    public ResponseEntity<OutboxStatsDto> getOutboxStats() {
+        return ResponseEntity.ok(outboxService.getStats());
+    }
+
+    @PostMapping("/outbox/dispatch")
+    public ResponseEntity<Integer> dispatchOutbox() {
+        return ResponseEntity.ok(outboxService.dispatchPending());
+    }
+
+    @PostMapping("/outbox/purge")
+    public ResponseEntity<Integer> purgeOutbox() {
+        return ResponseEntity.ok(outboxService.purgeProcessed());
+    }
+
+    // Times every view and UDF the helper repository wraps; GET returns the last run (null before the first)
+    @PostMapping("/db-probe")
+    public ResponseEntity<DatabaseProbeReportDto> runDatabaseProbe() {
+        return ResponseEntity.ok(utilityService.runDatabaseProbe());
+    }
+
+    @GetMapping("/db-probe")
+    public ResponseEntity<DatabaseProbeReportDto> getLastDatabaseProbe() {
+        return ResponseEntity.ok(utilityService.getLastProbeReport());
+    }
+
+    // Boot duration recorded at ApplicationReadyEvent, compared with procurement.diagnostics.startup.warn-ms
+    @GetMapping("/startup")
+    public ResponseEntity<StartupStatsDto> getStartupStats() {
+        return ResponseEntity.ok(utilityService.getStartupStats());
+    }
+
+    // Attachment store: distinct blobs, bytes on disk vs. bytes referenced, last GC result
+    @GetMapping("/file-blobs")
+    public ResponseEntity<FileBlobStatsDto> getFileBlobStats() {
+        return ResponseEntity.ok(fileBlobService.getStats());
+    }
+
+    @PostMapping("/file-blobs/gc")
+    public ResponseEntity<Integer> collectFileBlobGarbage() {
+        return ResponseEntity.ok(fileBlobService.collectGarbage());
+    }
+
+    // Returns how many in-memory reserved totals disagreed with the ledger
+    @PostMapping("/budget-reservations/reconcile")
+    public ResponseEntity<Integer> reconcileBudgetReservations() {
+        return ResponseEntity.ok(budgetReservationService.reconcile());
+    }
+
+    @GetMapping("/approval-workflow")
+    public ResponseEntity<ApprovalWorkflowDto> getApprovalWorkflow() {
+        return ResponseEntity.ok(approvalWorkflowService.describe());
+    }
+
+    // Picks up ApprovalSteps edits without waiting for the scheduled reload
+    @PostMapping("/approval-workflow/reload")
+    public ResponseEntity<?> reloadApprovalWorkflow() {
+        ApprovalWorkflowDto workflow = approvalWorkflowService.reload();
+        if (workflow == null) {
+            HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+            return ResponseEntity.status(status).body(new ApiErrorDto(status.value(), status.getReasonPhrase(),
+                    "The approval workflow could not be compiled and no earlier table is loaded; see the application log."));
+        }
+        return ResponseEntity.ok(workflow);
+    }
+}
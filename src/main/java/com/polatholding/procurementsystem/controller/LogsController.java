@@ -1,11 +1,23 @@
 package com.polatholding.procurementsystem.controller;
 
+import com.polatholding.procurementsystem.dto.RequestHistoryFilterDto;
+import com.polatholding.procurementsystem.dto.RequestHistoryPageDto;
 import com.polatholding.procurementsystem.service.RequestHistoryService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 @Controller
 @RequestMapping("/admin/logs")
@@ -19,8 +31,23 @@ public class LogsController {
     }
 
     @GetMapping
-    public String showLogs(Model model) {
-        model.addAttribute("logs", requestHistoryService.getAllHistory());
+    public String showLogs(@ModelAttribute("filter") RequestHistoryFilterDto filter, Model model) {
+        RequestHistoryPageDto page = requestHistoryService.getHistoryPage(filter);
+        model.addAttribute("logs", page.getEntries());
+        model.addAttribute("nextBefore", page.getNextBefore());
         return "admin-logs";
     }
+
+    // Rows are written as they are read, so the export never holds the table in memory
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportLogs(@ModelAttribute RequestHistoryFilterDto filter) {
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            requestHistoryService.exportHistoryCsv(filter, writer);
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"request-history.csv\"")
+                .body(body);
+    }
 }
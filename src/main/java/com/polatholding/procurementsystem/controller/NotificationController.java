@@ -2,10 +2,13 @@ package com.polatholding.procurementsystem.controller;
 
 import com.polatholding.procurementsystem.config.security.CustomUserDetails;
 import com.polatholding.procurementsystem.dto.NotificationDto;
+import com.polatholding.procurementsystem.service.NotificationPushService;
 import com.polatholding.procurementsystem.service.NotificationService;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -14,9 +17,12 @@ import java.util.List;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationPushService notificationPushService;
 
-    public NotificationController(NotificationService notificationService) {
+    public NotificationController(NotificationService notificationService,
+                                  NotificationPushService notificationPushService) {
         this.notificationService = notificationService;
+        this.notificationPushService = notificationPushService;
     }
 
     @GetMapping("/unread-count")
@@ -28,6 +34,18 @@ public class NotificationController {
         return ResponseEntity.ok(count);
     }
 
+    // Push channel for new notifications and unread-count changes; replaces polling the endpoints above
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamNotifications(@AuthenticationPrincipal CustomUserDetails userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(401).build();
+        }
+        SseEmitter emitter = notificationPushService.subscribe(userDetails.getUserId());
+        notificationPushService.pushUnreadCount(userDetails.getUserId(),
+                notificationService.getUnreadNotificationCountForUser(userDetails.getUserId()));
+        return ResponseEntity.ok(emitter);
+    }
+
     @GetMapping("/recent")
     public ResponseEntity<List<NotificationDto>> getRecentNotifications(
             @AuthenticationPrincipal CustomUserDetails userDetails,
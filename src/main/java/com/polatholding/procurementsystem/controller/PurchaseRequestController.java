@@ -1,7 +1,9 @@
 package com.polatholding.procurementsystem.controller;
 
+import com.polatholding.procurementsystem.dto.FileDownloadDto;
 import com.polatholding.procurementsystem.dto.PurchaseRequestDetailDto;
 import com.polatholding.procurementsystem.dto.PurchaseRequestFormDto;
+import com.polatholding.procurementsystem.dto.StagedUploadDto;
 import com.polatholding.procurementsystem.service.PurchaseRequestService;
 import com.polatholding.procurementsystem.service.RequestHistoryService;
 import com.polatholding.procurementsystem.service.FileService;
@@ -12,10 +14,15 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import java.security.Principal;
@@ -52,12 +59,17 @@ public class PurchaseRequestController {
                                  @RequestParam(value = "files", required = false) List<MultipartFile> files,
                                  Principal principal,
                                  RedirectAttributes redirectAttributes) {
+        List<StagedUploadDto> staged = List.of();
         try {
-            purchaseRequestService.saveNewRequest(formDto, principal.getName(), files);
+            // Attachments are written and fsynced before the save transaction opens
+            staged = fileService.stageUploads(files);
+            purchaseRequestService.saveNewRequest(formDto, principal.getName(), staged);
             redirectAttributes.addFlashAttribute("successMessage", "Purchase Request created successfully!");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", "Error creating request: " + e.getMessage());
             return "redirect:/requests/new";
+        } finally {
+            fileService.discardStaged(staged);
         }
         return "redirect:/dashboard";
     }
@@ -91,12 +103,16 @@ public class PurchaseRequestController {
                                 @RequestParam(value = "files", required = false) List<MultipartFile> files,
                                 Principal principal,
                                 RedirectAttributes redirectAttributes) {
+        List<StagedUploadDto> staged = List.of();
         try {
-            purchaseRequestService.updateRequest(id, formDto, principal.getName(), files);
+            staged = fileService.stageUploads(files);
+            purchaseRequestService.updateRequest(id, formDto, principal.getName(), staged);
             redirectAttributes.addFlashAttribute("successMessage", "Request #" + id + " has been updated and resubmitted.");
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", "Error updating request: " + e.getMessage());
             return "redirect:/requests/" + id + "/edit";
+        } finally {
+            fileService.discardStaged(staged);
         }
         return "redirect:/dashboard";
     }
@@ -109,12 +125,29 @@ public class PurchaseRequestController {
     }
 
 
+    // Range requests are answered with 206 by Spring's resource region support; a matching
+    // If-None-Match gets 304 without the body.
     @GetMapping("/files/{fileId}/download")
-    public ResponseEntity<Resource> downloadFile(@PathVariable("fileId") Integer fileId) throws Exception {
-        Resource resource = fileService.loadAsResource(fileId);
-        String filename = Path.of(resource.getFilename()).getFileName().toString();
+    public ResponseEntity<Resource> downloadFile(@PathVariable("fileId") Integer fileId) {
+        FileDownloadDto download = fileService.getDownload(fileId);
         return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
-                .body(resource);
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(download.getFilename(), StandardCharsets.UTF_8).build().toString())
+                .contentType(mediaTypeOf(download.getContentType()))
+                .lastModified(download.getLastModifiedMillis())
+                .eTag(download.getEtag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(new FileSystemResource(download.getPath()));
     }
-}
\ No newline at end of file
+
+    private static MediaType mediaTypeOf(String fileType) {
+        if (fileType == null || fileType.isBlank()) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+        try {
+            return MediaType.parseMediaType(fileType);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.polatholding.procurementsystem.controller;
+
+import com.polatholding.procurementsystem.dto.RequestListFilterDto;
+import com.polatholding.procurementsystem.dto.RequestPageDto;
+import com.polatholding.procurementsystem.service.PurchaseRequestService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+
+@RestController
+@RequestMapping("/api/requests")
+public class RequestApiController {
+
+    private final PurchaseRequestService purchaseRequestService;
+
+    public RequestApiController(PurchaseRequestService purchaseRequestService) {
+        this.purchaseRequestService = purchaseRequestService;
+    }
+
+    // Cursor-based listing; pass nextCursor from the previous response to read the following page
+    @GetMapping
+    public ResponseEntity<RequestPageDto> getRequests(@ModelAttribute RequestListFilterDto filter, Principal principal) {
+        try {
+            return ResponseEntity.ok(purchaseRequestService.getRequestPageForUser(principal.getName(), filter));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,12 +1,29 @@
 package com.polatholding.procurementsystem.controller.advice;
 
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import java.net.URI;
 
 @ControllerAdvice
 public class GlobalControllerAdvice {
 
+    private final DataSize maxFileSize;
+    private final DataSize maxRequestSize;
+
+    public GlobalControllerAdvice(@Value("${procurement.files.upload.max-file-size:25MB}") DataSize maxFileSize,
+                                  @Value("${procurement.files.upload.max-request-size:100MB}") DataSize maxRequestSize) {
+        this.maxFileSize = maxFileSize;
+        this.maxRequestSize = maxRequestSize;
+    }
+
     /**
      * This method adds the current request's URI to the model for every request.
      * This allows us to access it in Thymeleaf templates for things like
@@ -19,4 +36,33 @@ public class GlobalControllerAdvice {
     public String getCurrentUrl(HttpServletRequest request) {
         return request.getRequestURI();
     }
-}
\ No newline at end of file
+
+    /**
+     * Uploads past the container's multipart limits fail before any controller runs, so the
+     * form's own error handling never sees them. Sends the user back to the form they came
+     * from with the same kind of message FileServiceImpl gives for smaller oversize uploads.
+     */
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public String handleMaxUploadSizeExceeded(HttpServletRequest request, RedirectAttributes redirectAttributes) {
+        redirectAttributes.addFlashAttribute("errorMessage", "Attachments exceed the limit of "
+                + maxFileSize.toMegabytes() + " MB per file and " + maxRequestSize.toMegabytes() + " MB per request");
+        return "redirect:" + refererPath(request);
+    }
+
+    // Path of the referring page on this site only, so the Referer header can't redirect elsewhere
+    private static String refererPath(HttpServletRequest request) {
+        String referer = request.getHeader(HttpHeaders.REFERER);
+        if (referer != null) {
+            try {
+                URI uri = URI.create(referer);
+                String path = uri.getRawPath();
+                if (path != null && path.startsWith("/") && (uri.getHost() == null || uri.getHost().equals(request.getServerName()))) {
+                    return uri.getRawQuery() == null ? path : path + "?" + uri.getRawQuery();
+                }
+            } catch (IllegalArgumentException ignored) {
+                // Malformed header; fall through to the dashboard
+            }
+        }
+        return "/dashboard";
+    }
+}
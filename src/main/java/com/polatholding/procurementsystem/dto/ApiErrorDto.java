@@ -0,0 +1,15 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Body of a JSON endpoint's error response when the whole call failed
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApiErrorDto {
+    private int status;
+    private String error;
+    private String message;
+}
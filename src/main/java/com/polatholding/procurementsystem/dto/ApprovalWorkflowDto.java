@@ -0,0 +1,18 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApprovalWorkflowDto {
+    private LocalDateTime compiledAt;
+    private BigDecimal highValueThreshold;
+    private List<ApprovalWorkflowStepDto> steps;
+}
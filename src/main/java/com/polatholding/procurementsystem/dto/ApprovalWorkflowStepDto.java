@@ -0,0 +1,20 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApprovalWorkflowStepDto {
+    private int level;
+    private Integer approvalStepId;
+    private String roleName;
+    private String label;
+    private boolean departmentManagerStep;
+    private boolean highValueOnly;
+    // Where an approval at this level goes; 99 means final approval
+    private int nextLevel;
+    private int nextLevelHighValue;
+}
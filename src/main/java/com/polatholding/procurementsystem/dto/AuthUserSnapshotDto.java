@@ -0,0 +1,18 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+// What authentication and authorization need from a User row; cached instead of the entity
+@Data
+@AllArgsConstructor
+public class AuthUserSnapshotDto {
+    private Integer userId;
+    private String email;
+    private String passwordHash;
+    private Integer departmentId;
+    private Map<String, Integer> roleIdsByName;
+    private boolean procurementStaff;
+}
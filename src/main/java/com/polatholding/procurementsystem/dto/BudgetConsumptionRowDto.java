@@ -0,0 +1,15 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Approved net amount per budget code, currency and request day
+@Data
+public class BudgetConsumptionRowDto {
+    private Integer budgetCodeId;
+    private Integer currencyId;
+    private LocalDate requestDate;
+    private BigDecimal netTotal;
+}
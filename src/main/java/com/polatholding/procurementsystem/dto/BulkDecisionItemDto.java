@@ -0,0 +1,16 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDecisionItemDto {
+    private Integer requestId;
+    private boolean success;
+    // Status after the decision, or the unchanged status when it failed (null if the request was not found)
+    private String status;
+    private String message;
+}
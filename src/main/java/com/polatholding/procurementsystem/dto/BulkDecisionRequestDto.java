@@ -0,0 +1,13 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkDecisionRequestDto {
+    private List<Integer> requestIds;
+    // "approve" or "reject"
+    private String decision;
+    private String reason;
+}
@@ -0,0 +1,16 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDecisionResultDto {
+    private int succeeded;
+    private int failed;
+    private List<BulkDecisionItemDto> items;
+}
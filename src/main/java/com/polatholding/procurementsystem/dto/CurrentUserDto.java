@@ -0,0 +1,25 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+import java.util.Set;
+
+// The acting user as resolved once per HTTP request; services use its ids instead of re-reading Users
+@Data
+@AllArgsConstructor
+public class CurrentUserDto {
+    private Integer userId;
+    private String email;
+    private Integer departmentId;
+    private Map<String, Integer> roleIdsByName;
+
+    public Set<String> getRoleNames() {
+        return roleIdsByName.keySet();
+    }
+
+    public boolean hasRole(String roleName) {
+        return roleIdsByName.containsKey(roleName);
+    }
+}
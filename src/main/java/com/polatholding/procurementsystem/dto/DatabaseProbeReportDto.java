@@ -0,0 +1,18 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DatabaseProbeReportDto {
+    private LocalDateTime startedAt;
+    private long totalMillis;
+    private int failures;
+    private List<DatabaseProbeResultDto> probes;
+}
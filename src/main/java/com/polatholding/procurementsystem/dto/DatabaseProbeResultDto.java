@@ -0,0 +1,16 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DatabaseProbeResultDto {
+    private String objectName;
+    private boolean success;
+    private String result;
+    private long elapsedMillis;
+    private String error;
+}
@@ -0,0 +1,16 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileBlobStatsDto {
+    private long blobCount;
+    private long storedBytes;
+    private long referencedBytes;
+    private long lastGcRemovedBlobs;
+    private long lastGcRemovedOrphans;
+}
@@ -0,0 +1,18 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.file.Path;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileDownloadDto {
+    private Path path;
+    private String filename;
+    private String contentType;
+    private long lastModifiedMillis;
+    private String etag;
+}
@@ -0,0 +1,21 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GrossAmountStatsDto {
+    private BigDecimal vatRate;
+    private String rateSource;
+    private LocalDateTime loadedAt;
+    private double verifySampleRate;
+    private long calculations;
+    private long verifiedSamples;
+    private long mismatches;
+}
@@ -6,11 +6,15 @@ import com.polatholding.procurementsystem.model.Supplier;
 import com.polatholding.procurementsystem.model.Unit;
 import lombok.Data;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @Data
 public class NewRequestFormInitDto {
     private List<BudgetCode> budgetCodes;
+    // BudgetCodeID -> remaining amount not held by pending requests (TRY)
+    private Map<Integer, BigDecimal> availableBudgets;
     private List<Currency> currencies;
     private List<Supplier> suppliers;
     private List<Unit> units;
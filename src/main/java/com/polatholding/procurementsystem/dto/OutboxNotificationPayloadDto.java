@@ -0,0 +1,15 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.Data;
+
+// Snapshot of the request state a notification was decided on; the dispatcher may run after later changes
+@Data
+public class OutboxNotificationPayloadDto {
+    private String kind;
+    private Integer requestId;
+    private Integer actorUserId;
+    private String status;
+    private Integer currentApprovalLevel;
+    private String rejectReason;
+    private String previousStatus;
+}
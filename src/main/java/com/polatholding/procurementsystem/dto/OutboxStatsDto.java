@@ -0,0 +1,18 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class OutboxStatsDto {
+    private long pendingCount;
+    private long deadCount;
+    private LocalDateTime oldestPendingCreatedAt;
+    private long oldestPendingAgeMillis;
+    private long dispatchedTotal;
+    private long failedAttemptsTotal;
+    private LocalDateTime lastDispatchAt;
+    private long lastBatchSize;
+    private long lastBatchMaxLagMillis;
+}
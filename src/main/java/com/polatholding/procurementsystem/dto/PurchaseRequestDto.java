@@ -1,10 +1,15 @@
 package com.polatholding.procurementsystem.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+// Constructor order is used by the JPQL projections in PurchaseRequestRepository
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class PurchaseRequestDto {
     private Integer requestId;
     private String creatorFullName;
@@ -0,0 +1,21 @@
+package com.polatholding.procurementsystem.dto;
+
+import com.polatholding.procurementsystem.model.BudgetCode;
+import com.polatholding.procurementsystem.model.Currency;
+import com.polatholding.procurementsystem.model.Supplier;
+import com.polatholding.procurementsystem.model.Unit;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * All reference entities needed to build a purchase request from a submitted form,
+ * resolved in one pass by ReferenceDataService.
+ */
+@Data
+public class RequestFormReferencesDto {
+    private BudgetCode budgetCode;
+    private Currency currency;
+    private Map<Integer, Supplier> suppliers;
+    private Map<Integer, Unit> units;
+}
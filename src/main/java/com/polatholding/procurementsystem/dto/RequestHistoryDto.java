@@ -1,9 +1,14 @@
 package com.polatholding.procurementsystem.dto;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
+
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class RequestHistoryDto {
     private Integer historyId;
     private Integer requestId;
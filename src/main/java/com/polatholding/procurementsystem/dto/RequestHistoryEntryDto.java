@@ -0,0 +1,19 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One RequestHistory row to be written; eventDate is when the action happened, not when it is stored
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RequestHistoryEntryDto {
+    private Integer requestId;
+    private Integer userId;
+    private String action;
+    private String details;
+    private LocalDateTime eventDate;
+}
@@ -0,0 +1,19 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+@Data
+public class RequestHistoryFilterDto {
+    private Integer requestId;
+    private String userEmail;
+    private String action;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to; // inclusive
+    private Integer before; // keyset position: HistoryID of the last row on the previous page
+    private Integer size;
+}
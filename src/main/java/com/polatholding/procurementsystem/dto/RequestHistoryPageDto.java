@@ -0,0 +1,16 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RequestHistoryPageDto {
+    private List<RequestHistoryDto> entries;
+    private Integer nextBefore; // null on the last page
+    private int pageSize;
+}
@@ -0,0 +1,12 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.Data;
+
+@Data
+public class RequestListFilterDto {
+    private String status;
+    private Integer departmentId;
+    private Integer currencyId;
+    private String cursor; // opaque keyset position returned as RequestPageDto.nextCursor
+    private Integer size;
+}
@@ -0,0 +1,13 @@
+package com.polatholding.procurementsystem.dto;
+
+import com.polatholding.procurementsystem.model.Currency;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class RequestListFilterOptionsDto {
+    private List<String> statuses;
+    private List<SimpleDepartmentDto> departments;
+    private List<Currency> currencies;
+}
@@ -0,0 +1,17 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.file.Path;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StagedBlobDto {
+    // fsynced staging file, moved into the blob store (or dropped) by FileBlobService.store
+    private Path stagedPath;
+    private String blobHash;
+    private long sizeBytes;
+}
@@ -0,0 +1,14 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StagedUploadDto {
+    private String fileName;
+    private String contentType;
+    private StagedBlobDto blob;
+}
@@ -0,0 +1,18 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StartupStatsDto {
+    private LocalDateTime readyAt;
+    private long startupMillis;
+    private long jvmStartMillis;
+    private long warnThresholdMillis;
+    private boolean overThreshold;
+}
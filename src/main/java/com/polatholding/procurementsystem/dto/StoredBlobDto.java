@@ -0,0 +1,16 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredBlobDto {
+    private String blobHash;
+    private String storagePath;
+    private long sizeBytes;
+    // False when the content was already stored and the upload was deduplicated
+    private boolean newBlob;
+}
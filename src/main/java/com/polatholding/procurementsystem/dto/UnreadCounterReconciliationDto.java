@@ -0,0 +1,21 @@
+package com.polatholding.procurementsystem.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class UnreadCounterReconciliationDto {
+    private int countersChecked;
+    private int mismatches;
+    private boolean repaired;
+    private List<Drift> drifts = new ArrayList<>();
+
+    @Data
+    public static class Drift {
+        private Integer userId;
+        private long cachedCount;
+        private long databaseCount;
+    }
+}
@@ -0,0 +1,44 @@
+package com.polatholding.procurementsystem.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Rows are only ever inserted; ids instead of associations keep the insert free of extra loads
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "BudgetLedger")
+public class BudgetLedgerEntry {
+
+    public static final String TYPE_CONSUME = "CONSUME";
+    // Soft reservations held by pending requests; net reserved = RESERVE - RELEASE
+    public static final String TYPE_RESERVE = "RESERVE";
+    public static final String TYPE_RELEASE = "RELEASE";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "LedgerEntryID")
+    private Long ledgerEntryId;
+
+    @Column(name = "BudgetCodeID", nullable = false)
+    private Integer budgetCodeId;
+
+    @Column(name = "RequestID", nullable = false)
+    private Integer requestId;
+
+    @Column(name = "EntryType", nullable = false, length = 20)
+    private String entryType;
+
+    @Column(name = "Amount", nullable = false, precision = 18, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "CreatedByUserID")
+    private Integer createdByUserId;
+
+    @Column(name = "CreatedAt", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -24,6 +24,14 @@ public class File {
     @Column(name = "FileType", length = 50)
     private String fileType;
 
+    // Name the file was uploaded with; FilePath of a deduplicated file is its blob path
+    @Column(name = "FileName", length = 255)
+    private String fileName;
+
+    // Content hash in FileBlobs; null for files stored before the blob store
+    @Column(name = "BlobHash", length = 64)
+    private String blobHash;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "UploadedByUserID", nullable = false)
     private User uploadedByUser;
@@ -0,0 +1,32 @@
+package com.polatholding.procurementsystem.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "FileBlobs")
+public class FileBlob {
+
+    // Lower-case hex SHA-256 of the content
+    @Id
+    @Column(name = "BlobHash", length = 64)
+    private String blobHash;
+
+    @Column(name = "StoragePath", nullable = false, length = 200)
+    private String storagePath;
+
+    @Column(name = "SizeBytes", nullable = false)
+    private long sizeBytes;
+
+    // Number of Files rows pointing at this blob
+    @Column(name = "RefCount", nullable = false)
+    private int refCount;
+
+    @Column(name = "CreatedAt", nullable = false)
+    private LocalDateTime createdAt;
+}
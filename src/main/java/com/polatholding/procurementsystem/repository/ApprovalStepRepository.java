@@ -2,12 +2,18 @@ package com.polatholding.procurementsystem.repository;
 
 import com.polatholding.procurementsystem.model.ApprovalStep;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ApprovalStepRepository extends JpaRepository<ApprovalStep, Integer> {
     // Find the next step in the workflow
     Optional<ApprovalStep> findByStepOrder(int stepOrder);
+
+    // Everything the approval workflow is compiled from, in one query
+    @Query("SELECT s FROM ApprovalStep s JOIN FETCH s.requiredRole ORDER BY s.stepOrder")
+    List<ApprovalStep> findAllWithRequiredRole();
 }
\ No newline at end of file
@@ -2,13 +2,37 @@ package com.polatholding.procurementsystem.repository;
 
 import com.polatholding.procurementsystem.model.BudgetCode;
 import com.polatholding.procurementsystem.model.Department;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface BudgetCodeRepository extends JpaRepository<BudgetCode, Integer> {
 
     List<BudgetCode> findByDepartmentAndIsActiveTrue(Department department); // This was the missing method
+
+    @Query("SELECT b FROM BudgetCode b JOIN FETCH b.department")
+    List<BudgetCode> findAllWithDepartment();
+
+    // Check and subtract in one statement: of two concurrent consumers only those the balance covers succeed
+    @Modifying
+    @Query("UPDATE BudgetCode b SET b.budgetAmount = b.budgetAmount - :amount " +
+            "WHERE b.budgetCodeId = :id AND b.budgetAmount >= :amount")
+    int tryConsume(@Param("id") Integer budgetCodeId, @Param("amount") BigDecimal amount);
+
+    @Query("SELECT b.budgetAmount FROM BudgetCode b WHERE b.budgetCodeId = :id")
+    BigDecimal findBudgetAmount(@Param("id") Integer budgetCodeId);
+
+    // Row locks held to the end of the transaction; id order keeps concurrent lockers from deadlocking
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BudgetCode b WHERE b.budgetCodeId IN :ids ORDER BY b.budgetCodeId")
+    List<BudgetCode> lockAllById(@Param("ids") Collection<Integer> ids);
 }
\ No newline at end of file
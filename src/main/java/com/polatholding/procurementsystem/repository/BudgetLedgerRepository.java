@@ -0,0 +1,30 @@
+package com.polatholding.procurementsystem.repository;
+
+import com.polatholding.procurementsystem.model.BudgetLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BudgetLedgerRepository extends JpaRepository<BudgetLedgerEntry, Long> {
+
+    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM BudgetLedgerEntry e WHERE e.budgetCodeId = :budgetCodeId AND e.entryType = :entryType")
+    BigDecimal sumAmount(@Param("budgetCodeId") Integer budgetCodeId, @Param("entryType") String entryType);
+
+    // Rows of [budgetCodeId, net reserved amount]
+    @Query("SELECT e.budgetCodeId, SUM(CASE WHEN e.entryType = 'RESERVE' THEN e.amount ELSE -e.amount END) " +
+            "FROM BudgetLedgerEntry e WHERE e.entryType IN ('RESERVE', 'RELEASE') AND e.budgetCodeId IN :budgetCodeIds " +
+            "GROUP BY e.budgetCodeId")
+    List<Object[]> sumReservedByBudgetCode(@Param("budgetCodeIds") Collection<Integer> budgetCodeIds);
+
+    // Rows of [budgetCodeId, net amount this request still holds]
+    @Query("SELECT e.budgetCodeId, SUM(CASE WHEN e.entryType = 'RESERVE' THEN e.amount ELSE -e.amount END) " +
+            "FROM BudgetLedgerEntry e WHERE e.entryType IN ('RESERVE', 'RELEASE') AND e.requestId = :requestId " +
+            "GROUP BY e.budgetCodeId")
+    List<Object[]> sumReservedForRequest(@Param("requestId") Integer requestId);
+}
@@ -4,8 +4,10 @@ import com.polatholding.procurementsystem.dto.RequestSummaryViewDto;
 import com.polatholding.procurementsystem.dto.UserWithRoleViewDto;
 import com.polatholding.procurementsystem.dto.ApprovalViewDto;
 import com.polatholding.procurementsystem.dto.DepartmentBudgetViewDto;
+import com.polatholding.procurementsystem.dto.BudgetConsumptionRowDto;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 
@@ -22,6 +24,12 @@ public interface DatabaseHelperRepository {
     int getDaysSinceRequest(Integer requestId); // UDF
     BigDecimal calculateGrossAmount(BigDecimal netAmount); // UDF
     void startBackupJob();
+    List<BudgetConsumptionRowDto> getApprovedNetTotalsByBudgetCurrencyDay();
+    void insertNotifications(List<com.polatholding.procurementsystem.model.Notification> notifications); // one JDBC batch
+    void insertRequestHistory(List<com.polatholding.procurementsystem.dto.RequestHistoryEntryDto> entries); // one JDBC batch; see procurement.history.direct-insert
+    // Forward-only read of RequestHistory (newest first) handed to the sink row by row; nothing is buffered
+    void streamRequestHistory(Integer requestId, Integer userId, String action, LocalDateTime from, LocalDateTime toExclusive,
+                              java.util.function.Consumer<com.polatholding.procurementsystem.dto.RequestHistoryDto> sink);
 
     // --- NEW METHODS FOR DISTINCT VIEW USAGE ---
     List<RequestSummaryViewDto> getPendingRequestsViewData();       // vw_PendingRequests
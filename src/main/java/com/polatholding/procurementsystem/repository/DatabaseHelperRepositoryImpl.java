@@ -4,16 +4,26 @@ import com.polatholding.procurementsystem.dto.RequestSummaryViewDto;
 import com.polatholding.procurementsystem.dto.UserWithRoleViewDto;
 import com.polatholding.procurementsystem.dto.ApprovalViewDto;
 import com.polatholding.procurementsystem.dto.DepartmentBudgetViewDto;
+import com.polatholding.procurementsystem.dto.BudgetConsumptionRowDto;
+import com.polatholding.procurementsystem.dto.RequestHistoryDto;
+import com.polatholding.procurementsystem.dto.RequestHistoryEntryDto;
+import com.polatholding.procurementsystem.model.Notification;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import java.sql.Date;
 import java.time.LocalDate;
@@ -23,9 +33,12 @@ import java.time.LocalDate;
 public class DatabaseHelperRepositoryImpl implements DatabaseHelperRepository {
 
     private final JdbcTemplate jdbcTemplate;
+    private final boolean historyDirectInsert;
 
-    public DatabaseHelperRepositoryImpl(JdbcTemplate jdbcTemplate) {
+    public DatabaseHelperRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                        @Value("${procurement.history.direct-insert:false}") boolean historyDirectInsert) {
         this.jdbcTemplate = jdbcTemplate;
+        this.historyDirectInsert = historyDirectInsert;
     }
 
     @Override
@@ -123,6 +136,105 @@ public class DatabaseHelperRepositoryImpl implements DatabaseHelperRepository {
         jdbcTemplate.update("EXEC msdb.dbo.sp_start_job ?", "Daily Backup PolatHoldingProcurementDB");
     }
 
+    // Grouping by day keeps the rate lookup per (currency, day) instead of per request
+    @Override
+    public List<BudgetConsumptionRowDto> getApprovedNetTotalsByBudgetCurrencyDay() {
+        String sql = "SELECT BudgetCodeID, CurrencyID, CAST(CreatedAt AS DATE) AS RequestDate, SUM(NetAmount) AS NetTotal " +
+                "FROM PurchaseRequests WHERE Status = 'Approved' " +
+                "GROUP BY BudgetCodeID, CurrencyID, CAST(CreatedAt AS DATE)";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            BudgetConsumptionRowDto row = new BudgetConsumptionRowDto();
+            row.setBudgetCodeId(rs.getInt("BudgetCodeID"));
+            row.setCurrencyId(rs.getInt("CurrencyID"));
+            row.setRequestDate(rs.getDate("RequestDate").toLocalDate());
+            row.setNetTotal(rs.getBigDecimal("NetTotal"));
+            return row;
+        });
+    }
+
+    // IDENTITY keys stop Hibernate from batching inserts, so fan-out rows go through a plain JDBC batch
+    @Override
+    public void insertNotifications(List<Notification> notifications) {
+        String sql = "INSERT INTO Notifications (UserID, RequestID, NotificationType, SentDate, IsSuccess, Message, Link, IsRead) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        jdbcTemplate.batchUpdate(sql, notifications, notifications.size(), (ps, n) -> {
+            ps.setInt(1, n.getUser().getUserId());
+            ps.setObject(2, n.getPurchaseRequest() != null ? n.getPurchaseRequest().getRequestId() : null, Types.INTEGER);
+            ps.setString(3, n.getNotificationType());
+            ps.setTimestamp(4, Timestamp.valueOf(n.getSentDate()));
+            ps.setBoolean(5, n.isSuccess());
+            ps.setString(6, n.getMessage());
+            ps.setString(7, n.getLink());
+            ps.setBoolean(8, n.isRead());
+        });
+    }
+
+    // Goes through sp_LogHistoryAction, which stamps EventDate itself, so whatever else the procedure does
+    // still happens. With procurement.history.direct-insert the table is written directly and EventDate
+    // keeps the time of the action; only enable it where the procedure is known to do nothing more.
+    @Override
+    public void insertRequestHistory(List<RequestHistoryEntryDto> entries) {
+        if (!historyDirectInsert) {
+            jdbcTemplate.batchUpdate("EXEC sp_LogHistoryAction ?,?,?,?", entries, entries.size(), (ps, e) -> {
+                ps.setInt(1, e.getRequestId());
+                ps.setObject(2, e.getUserId(), Types.INTEGER);
+                ps.setString(3, e.getAction());
+                ps.setString(4, e.getDetails());
+            });
+            return;
+        }
+        String sql = "INSERT INTO RequestHistory (RequestID, UserID, Action, Details, EventDate) VALUES (?, ?, ?, ?, ?)";
+        jdbcTemplate.batchUpdate(sql, entries, entries.size(), (ps, e) -> {
+            ps.setInt(1, e.getRequestId());
+            ps.setObject(2, e.getUserId(), Types.INTEGER);
+            ps.setString(3, e.getAction());
+            ps.setString(4, e.getDetails());
+            ps.setTimestamp(5, Timestamp.valueOf(e.getEventDate()));
+        });
+    }
+
+    @Override
+    public void streamRequestHistory(Integer requestId, Integer userId, String action, LocalDateTime from, LocalDateTime toExclusive,
+                                     Consumer<RequestHistoryDto> sink) {
+        StringBuilder sql = new StringBuilder("SELECT h.HistoryID, h.RequestID, u.Email, h.Action, h.Details, h.EventDate " +
+                "FROM RequestHistory h LEFT JOIN Users u ON u.UserID = h.UserID WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (requestId != null) {
+            sql.append(" AND h.RequestID = ?");
+            args.add(requestId);
+        }
+        if (userId != null) {
+            sql.append(" AND h.UserID = ?");
+            args.add(userId);
+        }
+        if (action != null) {
+            sql.append(" AND h.Action = ?");
+            args.add(action);
+        }
+        if (from != null) {
+            sql.append(" AND h.EventDate >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (toExclusive != null) {
+            sql.append(" AND h.EventDate < ?");
+            args.add(Timestamp.valueOf(toExclusive));
+        }
+        sql.append(" ORDER BY h.HistoryID DESC");
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(500);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            Timestamp eventDate = rs.getTimestamp("EventDate");
+            sink.accept(new RequestHistoryDto(rs.getInt("HistoryID"), rs.getInt("RequestID"), rs.getString("Email"),
+                    rs.getString("Action"), rs.getString("Details"), eventDate != null ? eventDate.toLocalDateTime() : null));
+        });
+    }
+
     // --- IMPLEMENTATIONS FOR NEW VIEW METHODS ---
     @Override
     public List<RequestSummaryViewDto> getPendingRequestsViewData() {
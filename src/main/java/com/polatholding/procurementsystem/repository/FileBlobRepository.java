@@ -0,0 +1,45 @@
+package com.polatholding.procurementsystem.repository;
+
+import com.polatholding.procurementsystem.model.FileBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FileBlobRepository extends JpaRepository<FileBlob, String> {
+
+    // Insert-or-increment in one statement. HOLDLOCK serialises concurrent first uploads of the
+    // same content, and the row stays locked until the uploading transaction commits.
+    @Modifying
+    @Query(value = "MERGE FileBlobs WITH (HOLDLOCK) AS b " +
+            "USING (SELECT :hash AS BlobHash) AS s ON b.BlobHash = s.BlobHash " +
+            "WHEN MATCHED THEN UPDATE SET RefCount = b.RefCount + 1 " +
+            "WHEN NOT MATCHED THEN INSERT (BlobHash, StoragePath, SizeBytes, RefCount, CreatedAt) " +
+            "VALUES (:hash, :storagePath, :sizeBytes, 1, :createdAt);",
+            nativeQuery = true)
+    int addReference(@Param("hash") String hash, @Param("storagePath") String storagePath,
+                     @Param("sizeBytes") long sizeBytes, @Param("createdAt") LocalDateTime createdAt);
+
+    // Blobs no Files row points at any more, old enough that no upload can still be attaching them
+    @Query("SELECT b.blobHash FROM FileBlob b WHERE b.createdAt < :cutoff " +
+            "AND NOT EXISTS (SELECT 1 FROM File f WHERE f.blobHash = b.blobHash)")
+    List<String> findUnreferencedHashes(@Param("cutoff") LocalDateTime cutoff);
+
+    // Locks the blob against a concurrent addReference while the collector re-checks and deletes it.
+    // HOLDLOCK also locks the key when no row exists, so an orphan file check blocks the MERGE insert.
+    @Query(value = "SELECT * FROM FileBlobs WITH (UPDLOCK, HOLDLOCK, ROWLOCK) WHERE BlobHash = :hash", nativeQuery = true)
+    Optional<FileBlob> lockByHash(@Param("hash") String hash);
+
+    @Query("SELECT COUNT(f) FROM File f WHERE f.blobHash = :hash")
+    long countReferences(@Param("hash") String hash);
+
+    // Returns a single row: [blob count, bytes on disk, bytes the references would take without dedup]
+    @Query("SELECT COUNT(b), COALESCE(SUM(b.sizeBytes), 0), COALESCE(SUM(b.sizeBytes * b.refCount), 0) FROM FileBlob b")
+    List<Object[]> getStorageSummary();
+}
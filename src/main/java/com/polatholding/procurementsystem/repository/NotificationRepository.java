@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -34,8 +35,12 @@ public interface NotificationRepository extends JpaRepository<Notification, Inte
     // Find by user and notification ID to ensure user owns the notification before marking as read
     Notification findByNotificationIdAndUserUserId(Integer notificationId, Integer userId);
 
-    // Added direct SQL update for a single notification
+    // Added direct SQL update for a single notification; returns 0 when it was already read
     @Modifying
-    @Query(value = "UPDATE Notifications SET IsRead = 1 WHERE NotificationID = :notificationId AND UserID = :userId", nativeQuery = true)
-    void markAsReadNative(@Param("notificationId") Integer notificationId, @Param("userId") Integer userId);
+    @Query(value = "UPDATE Notifications SET IsRead = 1 WHERE NotificationID = :notificationId AND UserID = :userId AND IsRead = 0", nativeQuery = true)
+    int markAsReadNative(@Param("notificationId") Integer notificationId, @Param("userId") Integer userId);
+
+    // [UserID, unread count] for the users whose in-memory counters are being reconciled
+    @Query("SELECT n.user.userId, COUNT(n) FROM Notification n WHERE n.isRead = false AND n.user.userId IN :userIds GROUP BY n.user.userId")
+    List<Object[]> countUnreadByUserIds(@Param("userIds") Collection<Integer> userIds);
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.polatholding.procurementsystem.repository;
+
+import com.polatholding.procurementsystem.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Row locks are held until the dispatching transaction commits; READPAST lets a second
+    // dispatcher (another node) skip the claimed rows instead of waiting on them.
+    @Query(value = "SELECT TOP (:batchSize) * FROM OutboxEvents WITH (UPDLOCK, READPAST, ROWLOCK) " +
+            "WHERE ProcessedAt IS NULL AND Attempts < :maxAttempts ORDER BY OutboxEventID",
+            nativeQuery = true)
+    List<OutboxEvent> claimPendingBatch(@Param("batchSize") int batchSize, @Param("maxAttempts") int maxAttempts);
+
+    @Query(value = "SELECT * FROM OutboxEvents WITH (UPDLOCK, READPAST, ROWLOCK) " +
+            "WHERE OutboxEventID = :id AND ProcessedAt IS NULL",
+            nativeQuery = true)
+    Optional<OutboxEvent> claimPendingById(@Param("id") Long id);
+
+    // Returns a single row: [pending count, oldest pending CreatedAt]
+    @Query("SELECT COUNT(e), MIN(e.createdAt) FROM OutboxEvent e WHERE e.processedAt IS NULL AND e.attempts < :maxAttempts")
+    List<Object[]> getPendingSummary(@Param("maxAttempts") int maxAttempts);
+
+    @Query("SELECT COUNT(e) FROM OutboxEvent e WHERE e.processedAt IS NULL AND e.attempts >= :maxAttempts")
+    long countDead(@Param("maxAttempts") int maxAttempts);
+
+    // Delivered events only; dead ones stay until someone has looked at them. Bounded so one
+    // purge never holds a long lock on the table.
+    @Modifying
+    @Query(value = "DELETE TOP (:batchSize) FROM OutboxEvents WHERE ProcessedAt < :cutoff", nativeQuery = true)
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+}
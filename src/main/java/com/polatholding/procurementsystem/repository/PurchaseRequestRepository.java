@@ -1,58 +1,48 @@
 package com.polatholding.procurementsystem.repository;
 
+import com.polatholding.procurementsystem.dto.PurchaseRequestDto;
 import com.polatholding.procurementsystem.model.PurchaseRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 @Repository
-public interface PurchaseRequestRepository extends JpaRepository<PurchaseRequest, Integer> {
+public interface PurchaseRequestRepository extends JpaRepository<PurchaseRequest, Integer>, PurchaseRequestRepositoryCustom {
 
-    @Query("SELECT pr FROM PurchaseRequest pr " +
-            "JOIN FETCH pr.createdByUser u " +
-            "JOIN FETCH pr.department " +
-            "JOIN FETCH pr.currency " +
-            "ORDER BY pr.createdAt DESC")
-    List<PurchaseRequest> findAllWithDetails();
+    // Listing projection: reads the nine columns PurchaseRequestDto needs without hydrating entities
+    String SUMMARY_SELECT = "SELECT new com.polatholding.procurementsystem.dto.PurchaseRequestDto(" +
+            "pr.requestId, CONCAT(u.firstName, ' ', u.lastName), d.departmentName, pr.status, pr.netAmount, " +
+            "c.currencyCode, pr.createdAt, pr.rejectReason, u.userId) " +
+            "FROM PurchaseRequest pr " +
+            "JOIN pr.createdByUser u " +
+            "JOIN pr.department d " +
+            "JOIN pr.currency c ";
 
-    @Query("SELECT pr FROM PurchaseRequest pr " +
-            "JOIN FETCH pr.createdByUser u " +
-            "JOIN FETCH pr.department " +
-            "JOIN FETCH pr.currency " +
-            "WHERE u.userId = :userId " +
-            "ORDER BY pr.createdAt DESC")
-    List<PurchaseRequest> findByCreatorIdWithDetails(@Param("userId") Integer userId);
+    @Query(SUMMARY_SELECT + "ORDER BY pr.createdAt DESC")
+    List<PurchaseRequestDto> findAllSummaries();
 
-    @Query("SELECT pr FROM PurchaseRequest pr " +
-            "JOIN FETCH pr.createdByUser " +
-            "JOIN FETCH pr.department d " +
-            "JOIN FETCH pr.currency " +
-            "WHERE pr.status = 'Pending' AND pr.currentApprovalLevel = 1 AND d.managerUserId = :managerId")
-    List<PurchaseRequest> findPendingDepartmentManagerApprovals(@Param("managerId") Integer managerId);
+    // One user's actionable queue: level-1 requests of departments they manage plus any level
+    // whose ApprovalStep requires one of their roles. Pass -1 / {-1} to disable either branch.
+    String APPROVAL_INBOX_WHERE = "WHERE pr.status = 'Pending' AND (" +
+            "(pr.currentApprovalLevel = 1 AND d.managerUserId = :managerId) " +
+            "OR pr.currentApprovalLevel IN (SELECT a.stepOrder FROM ApprovalStep a WHERE a.requiredRole.id IN :roleIds)) ";
 
-    //BELOW IS THE NEW findPendingDepartmentManagerApprovals
-    @Query("SELECT pr FROM PurchaseRequest pr " +
-            "JOIN FETCH pr.createdByUser " +
-            "JOIN FETCH pr.department d " +
-            "JOIN FETCH pr.currency " +
-            "WHERE pr.status = 'Pending' AND pr.currentApprovalLevel = 1 AND d.departmentId = :departmentId AND d.managerUser.userId = :managerId " +
-            "ORDER BY pr.createdAt ASC")
-    List<PurchaseRequest> findPendingDepartmentManagerApprovals(@Param("managerId") Integer managerId, @Param("departmentId") Integer departmentId);
+    @Query(SUMMARY_SELECT + APPROVAL_INBOX_WHERE + "ORDER BY pr.createdAt ASC, pr.requestId ASC")
+    List<PurchaseRequestDto> findApprovalInbox(@Param("managerId") Integer managerId, @Param("roleIds") Set<Integer> roleIds, Pageable pageable);
 
-    @Query("SELECT pr FROM PurchaseRequest pr " +
-            "JOIN ApprovalStep a ON pr.currentApprovalLevel = a.stepOrder " +
-            "JOIN FETCH pr.createdByUser " +
-            "JOIN FETCH pr.department " +
-            "JOIN FETCH pr.currency " +
-            "WHERE pr.status = 'Pending' AND a.requiredRole.id IN :roleIds " +
-            "ORDER BY pr.createdAt ASC")
-    List<PurchaseRequest> findPendingApprovalsByRoleIds(@Param("roleIds") Set<Integer> roleIds);
+    @Query("SELECT COUNT(pr) FROM PurchaseRequest pr JOIN pr.department d " + APPROVAL_INBOX_WHERE)
+    long countApprovalInbox(@Param("managerId") Integer managerId, @Param("roleIds") Set<Integer> roleIds);
+
+    @Query(SUMMARY_SELECT + "WHERE pr.requestId IN :requestIds ORDER BY pr.createdAt DESC")
+    List<PurchaseRequestDto> findSummariesByIds(@Param("requestIds") Collection<Integer> requestIds);
 
     @Query("SELECT pr FROM PurchaseRequest pr " +
             "JOIN FETCH pr.createdByUser " +
@@ -65,27 +55,35 @@ public interface PurchaseRequestRepository extends JpaRepository<PurchaseRequest
             "WHERE pr.requestId = :requestId")
     Optional<PurchaseRequest> findByIdWithAllDetails(@Param("requestId") Integer requestId);
 
+    // Decision fetch plan: the header plus what the checks read. The creator stays a lazy reference
+    // (only its id is used, and loading it would also load its EAGER roles); the department brings
+    // ManagerUserID as a plain column; no items, suppliers or units.
+    String DECISION_SELECT = "SELECT pr FROM PurchaseRequest pr " +
+            "JOIN FETCH pr.department " +
+            "JOIN FETCH pr.currency " +
+            "JOIN FETCH pr.budgetCode ";
+
+    @Query(DECISION_SELECT + "WHERE pr.requestId = :requestId")
+    Optional<PurchaseRequest> findForDecision(@Param("requestId") Integer requestId);
+
+    @Query(DECISION_SELECT + "WHERE pr.requestId IN :requestIds")
+    List<PurchaseRequest> findAllForDecision(@Param("requestIds") Collection<Integer> requestIds);
+
+    @Query("SELECT DISTINCT pr.budgetCode.budgetCodeId FROM PurchaseRequest pr WHERE pr.requestId IN :requestIds")
+    List<Integer> findBudgetCodeIds(@Param("requestIds") Collection<Integer> requestIds);
+
     @Query("SELECT COALESCE(SUM(pr.netAmount), 0) FROM PurchaseRequest pr WHERE pr.budgetCode.id = :budgetCodeId AND pr.status = 'Approved'")
     BigDecimal getConsumedAmountForBudget(@Param("budgetCodeId") Integer budgetCodeId);
 
-    @Query("SELECT pr FROM PurchaseRequest pr " +
-            "JOIN FETCH pr.currency " +
-            "WHERE pr.budgetCode.id = :budgetCodeId AND pr.status = 'Approved'")
-    List<PurchaseRequest> findApprovedByBudget(@Param("budgetCodeId") Integer budgetCodeId);
-
-    @Query("SELECT pr FROM PurchaseRequest pr " +
-            "JOIN FETCH pr.createdByUser " +
-            "JOIN FETCH pr.department " +
-            "JOIN FETCH pr.currency " +
+    @Query(SUMMARY_SELECT +
             "WHERE pr.budgetCode.id = :budgetCodeId " +
             "ORDER BY pr.createdAt DESC")
-    List<PurchaseRequest> findByBudget(@Param("budgetCodeId") Integer budgetCodeId);
+    List<PurchaseRequestDto> findSummariesByBudget(@Param("budgetCodeId") Integer budgetCodeId);
 
-    @Query(value = "SELECT pr.* FROM PurchaseRequests pr " +
-            "JOIN PurchaseRequestItems pri ON pr.RequestID = pri.RequestID " +
+    @Query(value = "SELECT DISTINCT pri.RequestID FROM PurchaseRequestItems pri " +
             "WHERE FREETEXT((pri.ItemName, pri.Description), :searchTerm)",
             nativeQuery = true)
-    List<PurchaseRequest> searchByItemFreetext(@Param("searchTerm") String searchTerm);
+    List<Integer> searchRequestIdsByItemFreetext(@Param("searchTerm") String searchTerm);
 
 
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.polatholding.procurementsystem.repository;
+
+import com.polatholding.procurementsystem.dto.PurchaseRequestDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PurchaseRequestRepositoryCustom {
+
+    /**
+     * Seek-based page ordered by (CreatedAt DESC, RequestID DESC). Null filters are left out
+     * of the generated JPQL so each combination gets its own plan on IX_PurchaseRequests_CreatedAt_RequestID.
+     * Pass a null afterCreatedAt for the first page.
+     */
+    List<PurchaseRequestDto> findSummaryPage(Integer creatorId, String status, Integer departmentId, Integer currencyId,
+                                              LocalDateTime afterCreatedAt, Integer afterRequestId, int limit);
+}
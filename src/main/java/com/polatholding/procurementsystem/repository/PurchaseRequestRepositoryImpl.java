@@ -0,0 +1,51 @@
+package com.polatholding.procurementsystem.repository;
+
+import com.polatholding.procurementsystem.dto.PurchaseRequestDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PurchaseRequestRepositoryImpl implements PurchaseRequestRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PurchaseRequestDto> findSummaryPage(Integer creatorId, String status, Integer departmentId, Integer currencyId,
+                                                     LocalDateTime afterCreatedAt, Integer afterRequestId, int limit) {
+        StringBuilder jpql = new StringBuilder(PurchaseRequestRepository.SUMMARY_SELECT + "WHERE 1 = 1");
+        Map<String, Object> params = new LinkedHashMap<>();
+
+        if (creatorId != null) {
+            jpql.append(" AND u.userId = :creatorId");
+            params.put("creatorId", creatorId);
+        }
+        if (status != null) {
+            jpql.append(" AND pr.status = :status");
+            params.put("status", status);
+        }
+        if (departmentId != null) {
+            jpql.append(" AND d.departmentId = :departmentId");
+            params.put("departmentId", departmentId);
+        }
+        if (currencyId != null) {
+            jpql.append(" AND c.currencyId = :currencyId");
+            params.put("currencyId", currencyId);
+        }
+        if (afterCreatedAt != null) {
+            jpql.append(" AND (pr.createdAt < :afterCreatedAt OR (pr.createdAt = :afterCreatedAt AND pr.requestId < :afterRequestId))");
+            params.put("afterCreatedAt", afterCreatedAt);
+            params.put("afterRequestId", afterRequestId);
+        }
+        jpql.append(" ORDER BY pr.createdAt DESC, pr.requestId DESC");
+
+        TypedQuery<PurchaseRequestDto> query = entityManager.createQuery(jpql.toString(), PurchaseRequestDto.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
@@ -5,5 +5,5 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface RequestHistoryRepository extends JpaRepository<RequestHistory, Integer> {
-}
\ No newline at end of file
+public interface RequestHistoryRepository extends JpaRepository<RequestHistory, Integer>, RequestHistoryRepositoryCustom {
+}
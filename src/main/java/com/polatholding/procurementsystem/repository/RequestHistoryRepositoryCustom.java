@@ -0,0 +1,18 @@
+package com.polatholding.procurementsystem.repository;
+
+import com.polatholding.procurementsystem.dto.RequestHistoryDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface RequestHistoryRepositoryCustom {
+
+    /**
+     * Seek-based page ordered by HistoryID DESC with the user's email joined in the same query.
+     * Null filters are left out of the generated JPQL; toExclusive is the first instant not included.
+     * Pass a null beforeHistoryId for the first page.
+     */
+    List<RequestHistoryDto> findHistoryPage(Integer requestId, Integer userId, String action,
+                                            LocalDateTime from, LocalDateTime toExclusive,
+                                            Integer beforeHistoryId, int limit);
+}
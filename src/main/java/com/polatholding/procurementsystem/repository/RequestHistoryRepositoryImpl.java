@@ -0,0 +1,57 @@
+package com.polatholding.procurementsystem.repository;
+
+import com.polatholding.procurementsystem.dto.RequestHistoryDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RequestHistoryRepositoryImpl implements RequestHistoryRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<RequestHistoryDto> findHistoryPage(Integer requestId, Integer userId, String action,
+                                                   LocalDateTime from, LocalDateTime toExclusive,
+                                                   Integer beforeHistoryId, int limit) {
+        StringBuilder jpql = new StringBuilder("SELECT new com.polatholding.procurementsystem.dto.RequestHistoryDto(" +
+                "h.historyId, h.requestId, u.email, h.action, h.details, h.eventDate) " +
+                "FROM RequestHistory h LEFT JOIN h.user u WHERE 1 = 1");
+        Map<String, Object> params = new LinkedHashMap<>();
+
+        if (requestId != null) {
+            jpql.append(" AND h.requestId = :requestId");
+            params.put("requestId", requestId);
+        }
+        if (userId != null) {
+            jpql.append(" AND u.userId = :userId");
+            params.put("userId", userId);
+        }
+        if (action != null) {
+            jpql.append(" AND h.action = :action");
+            params.put("action", action);
+        }
+        if (from != null) {
+            jpql.append(" AND h.eventDate >= :from");
+            params.put("from", from);
+        }
+        if (toExclusive != null) {
+            jpql.append(" AND h.eventDate < :toExclusive");
+            params.put("toExclusive", toExclusive);
+        }
+        if (beforeHistoryId != null) {
+            jpql.append(" AND h.historyId < :beforeHistoryId");
+            params.put("beforeHistoryId", beforeHistoryId);
+        }
+        jpql.append(" ORDER BY h.historyId DESC");
+
+        TypedQuery<RequestHistoryDto> query = entityManager.createQuery(jpql.toString(), RequestHistoryDto.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
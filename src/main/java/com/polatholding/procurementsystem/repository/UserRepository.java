@@ -2,14 +2,23 @@ package com.polatholding.procurementsystem.repository;
 
 import com.polatholding.procurementsystem.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import com.polatholding.procurementsystem.model.Role;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findByEmail(String email);
-    List<User> findByRolesContaining(Role role); // New method
+
+    // Everything login needs in one statement, usable outside a transaction
+    @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.roles LEFT JOIN FETCH u.department WHERE u.email = :email")
+    Optional<User> findByEmailWithRolesAndDepartment(@Param("email") String email);
+
+    // Ids only, so the approver directory never loads users with their EAGER roles
+    @Query("SELECT u.userId FROM User u JOIN u.roles r WHERE r.roleId = :roleId AND u.formerEmployee = false ORDER BY u.userId")
+    List<Integer> findActiveUserIdsByRoleId(@Param("roleId") Integer roleId);
+
     List<User> findByDepartment_DepartmentIdAndFormerEmployeeFalse(Integer departmentId);
 }
\ No newline at end of file
@@ -31,6 +31,8 @@ public class AdminServiceImpl implements AdminService {
     private final DepartmentRepository departmentRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserAuthCacheService userAuthCacheService;
+    private final ApproverDirectoryService approverDirectoryService;
 
     // Role Names - Ensure these EXACTLY match RoleName in your Roles TABLE
     public static final String AUDITOR_ROLE_NAME = "Auditor";
@@ -51,11 +53,15 @@ public class AdminServiceImpl implements AdminService {
     public AdminServiceImpl(UserRepository userRepository,
                             DepartmentRepository departmentRepository,
                             RoleRepository roleRepository,
-                            PasswordEncoder passwordEncoder) {
+                            PasswordEncoder passwordEncoder,
+                            UserAuthCacheService userAuthCacheService,
+                            ApproverDirectoryService approverDirectoryService) {
         this.userRepository = userRepository;
         this.departmentRepository = departmentRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userAuthCacheService = userAuthCacheService;
+        this.approverDirectoryService = approverDirectoryService;
     }
 
     @Override
@@ -186,6 +192,7 @@ public class AdminServiceImpl implements AdminService {
         newUser.setRoles(Collections.singleton(finalRoleToAssignToUser));
 
         User savedUser = userRepository.save(newUser);
+        approverDirectoryService.evictAll();
         log.info("createUser: User {} (ID: {}) created successfully with role {} and department {}.",
                 savedUser.getEmail(), savedUser.getUserId(), finalRoleToAssignToUser.getRoleName(),
                 finalDepartmentToAssign != null ? finalDepartmentToAssign.getDepartmentName() : "N/A");
@@ -371,6 +378,8 @@ public class AdminServiceImpl implements AdminService {
         log.debug("updateUser: Set FormerEmployee to: {}", userFormDto.isFormerEmployee());
 
         userRepository.save(userToUpdate);
+        userAuthCacheService.evictUser(userToUpdate.getUserId()); // password, roles or department may have changed
+        approverDirectoryService.evictAll();
         log.info("updateUser: User {} (ID: {}) updated successfully. Role: {}, Department: {}.",
                 userToUpdate.getEmail(), userToUpdate.getUserId(),
                 finalRoleToAssignToUser.getRoleName(),
@@ -386,6 +395,8 @@ public class AdminServiceImpl implements AdminService {
 
         user.setFormerEmployee(!user.isFormerEmployee());
         userRepository.save(user);
+        userAuthCacheService.evictUser(userId);
+        approverDirectoryService.evictAll(); // former employees stop receiving approval requests
         log.info("Toggled active status for UserID: {}. Is now former employee: {}", userId, user.isFormerEmployee());
     }
 }
\ No newline at end of file
@@ -1,6 +1,12 @@
 package com.polatholding.procurementsystem.service;
 
+import com.polatholding.procurementsystem.dto.BulkDecisionResultDto;
+
+import java.util.List;
+
 public interface ApprovalService {
     void processDecision(int requestId, String userEmail, String decision, String reason);
+    // One query for the requests, budget codes locked once; refused items are reported, not rolled back
+    BulkDecisionResultDto processBulkDecision(List<Integer> requestIds, String userEmail, String decision, String reason);
     void returnForEdit(int requestId, String userEmail, String comments);
-}
\ No newline at end of file
+}
@@ -1,10 +1,13 @@
 package com.polatholding.procurementsystem.service;
 
+import com.polatholding.procurementsystem.dto.BulkDecisionItemDto;
+import com.polatholding.procurementsystem.dto.BulkDecisionResultDto;
+import com.polatholding.procurementsystem.dto.CurrentUserDto;
 import com.polatholding.procurementsystem.exception.InsufficientBudgetException;
 import com.polatholding.procurementsystem.model.*;
 import com.polatholding.procurementsystem.repository.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
@@ -12,6 +15,11 @@ import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Service
@@ -22,60 +30,117 @@ public class ApprovalServiceImpl implements ApprovalService {
     private final PurchaseRequestRepository purchaseRequestRepository;
     private final UserRepository userRepository;
     private final ApprovalRepository approvalRepository;
-    private final ExchangeRateRepository exchangeRateRepository;
+    private final ExchangeRateService exchangeRateService;
     private final ApprovalStepRepository approvalStepRepository;
     private final BudgetCodeRepository budgetCodeRepository;
-    private final RequestHistoryService requestHistoryService;
-    private final NotificationService notificationService; // Added
-
-    private static final BigDecimal HIGH_VALUE_THRESHOLD = new BigDecimal("1000000");
-    private static final String DIRECTOR_ROLE_NAME = "Director";
-    private static final String PROCUREMENT_MANAGER_ROLE_NAME = "ProcurementManager";
-    private static final String MANAGER_ROLE_NAME = "Manager"; // For checking department manager
+    private final ApprovalWorkflowService approvalWorkflowService;
+    private final BudgetService budgetService;
+    private final BudgetReservationService budgetReservationService;
+    private final OutboxService outboxService; // history and notifications are delivered asynchronously
+    private final CurrentUserService currentUserService;
+    private final int maxBulkSize;
 
     public ApprovalServiceImpl(PurchaseRequestRepository purchaseRequestRepository,
                                UserRepository userRepository,
                                ApprovalRepository approvalRepository,
-                               ExchangeRateRepository exchangeRateRepository,
+                               ExchangeRateService exchangeRateService,
                                ApprovalStepRepository approvalStepRepository,
                                BudgetCodeRepository budgetCodeRepository,
-                               RequestHistoryService requestHistoryService,
-                               NotificationService notificationService) { // Added notificationService
+                               ApprovalWorkflowService approvalWorkflowService,
+                               BudgetService budgetService,
+                               BudgetReservationService budgetReservationService,
+                               OutboxService outboxService,
+                               CurrentUserService currentUserService,
+                               @Value("${procurement.approvals.bulk.max-size:200}") int maxBulkSize) {
         this.purchaseRequestRepository = purchaseRequestRepository;
         this.userRepository = userRepository;
         this.approvalRepository = approvalRepository;
-        this.exchangeRateRepository = exchangeRateRepository;
+        this.exchangeRateService = exchangeRateService;
         this.approvalStepRepository = approvalStepRepository;
         this.budgetCodeRepository = budgetCodeRepository;
-        this.requestHistoryService = requestHistoryService;
-        this.notificationService = notificationService; // Added assignment
+        this.approvalWorkflowService = approvalWorkflowService;
+        this.budgetService = budgetService;
+        this.budgetReservationService = budgetReservationService;
+        this.outboxService = outboxService;
+        this.currentUserService = currentUserService;
+        this.maxBulkSize = maxBulkSize;
     }
 
     @Override
     @Transactional
     public void processDecision(int requestId, String userEmail, String decision, String reason) {
-        User approver = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userEmail));
-        PurchaseRequest request = purchaseRequestRepository.findByIdWithAllDetails(requestId)
+        // Ids and roles come from the request's resolved user; the approver row is only needed as a foreign key
+        CurrentUserDto approver = currentUserService.resolve(userEmail);
+        PurchaseRequest request = purchaseRequestRepository.findForDecision(requestId)
                 .orElseThrow(() -> new RuntimeException("Purchase Request not found: " + requestId));
+        applyDecision(request, approver, decision, reason);
+    }
+
+    @Override
+    @Transactional
+    public BulkDecisionResultDto processBulkDecision(List<Integer> requestIds, String userEmail, String decision, String reason) {
+        boolean reject = "reject".equalsIgnoreCase(decision);
+        if (!reject && !"approve".equalsIgnoreCase(decision)) {
+            throw new IllegalArgumentException("Unknown decision: " + decision);
+        }
+        if (requestIds == null || requestIds.isEmpty()) {
+            return new BulkDecisionResultDto(0, 0, List.of());
+        }
+        Set<Integer> ids = new LinkedHashSet<>(requestIds);
+        if (ids.size() > maxBulkSize) {
+            throw new IllegalArgumentException("At most " + maxBulkSize + " requests can be decided at once");
+        }
 
-        // Ensure creator and department manager are loaded for notification/logic
-        if (request.getCreatedByUser() == null) {
-            request.setCreatedByUser(userRepository.findById(request.getCreatedByUser().getUserId()).orElseThrow());
+        CurrentUserDto approver = currentUserService.resolve(userEmail);
+        if (!reject) {
+            // Lock every budget code the batch can draw on once, in id order, so two overlapping batches
+            // queue behind each other instead of deadlocking on their per-request budget updates
+            budgetCodeRepository.lockAllById(purchaseRequestRepository.findBudgetCodeIds(ids));
         }
-        if (request.getDepartment() != null && request.getDepartment().getManagerUser() == null && request.getDepartment().getManagerUserId() != null) {
-            userRepository.findById(request.getDepartment().getManagerUserId()).ifPresent(manager -> request.getDepartment().setManagerUser(manager));
+        Map<Integer, PurchaseRequest> requests = new HashMap<>();
+        for (PurchaseRequest request : purchaseRequestRepository.findAllForDecision(ids)) {
+            requests.put(request.getRequestId(), request);
         }
 
+        // Every check in applyDecision runs before its first write, so a refused item leaves nothing
+        // behind and the rest of the batch still commits
+        List<BulkDecisionItemDto> items = new ArrayList<>();
+        int succeeded = 0;
+        for (Integer requestId : ids) {
+            PurchaseRequest request = requests.get(requestId);
+            if (request == null) {
+                items.add(new BulkDecisionItemDto(requestId, false, null, "Purchase Request not found"));
+                continue;
+            }
+            if (!"Pending".equalsIgnoreCase(request.getStatus())) {
+                items.add(new BulkDecisionItemDto(requestId, false, request.getStatus(), "Request is not pending"));
+                continue;
+            }
+            try {
+                if (reject) {
+                    checkApproverForLevel(request, approver);
+                }
+                applyDecision(request, approver, decision, reason);
+                items.add(new BulkDecisionItemDto(requestId, true, request.getStatus(), null));
+                succeeded++;
+            } catch (AccessDeniedException | InsufficientBudgetException | IllegalStateException e) {
+                items.add(new BulkDecisionItemDto(requestId, false, request.getStatus(), e.getMessage()));
+            }
+        }
+        log.info("Bulk {} by UserID {}: {} of {} requests processed", decision, approver.getUserId(), succeeded, ids.size());
+        return new BulkDecisionResultDto(succeeded, items.size() - succeeded, items);
+    }
 
+    private void applyDecision(PurchaseRequest request, CurrentUserDto approver, String decision, String reason) {
+        int requestId = request.getRequestId();
+        ApprovalWorkflow workflow = approvalWorkflowService.current();
+        ApprovalWorkflow.Step step = workflow.getStep(request.getCurrentApprovalLevel());
         boolean isSelfApproval = approver.getUserId().equals(request.getCreatedByUser().getUserId());
-        boolean isDirectorActing = approver.getRoles().stream().anyMatch(role -> DIRECTOR_ROLE_NAME.equals(role.getRoleName()));
-        if (isSelfApproval && !isDirectorActing) { // Directors can "approve" their own technically by it being auto-approved or them being the final step
+        if (isSelfApproval && !workflow.isFinalAuthority(approver.getRoleNames())) { // The final approver may approve their own request
             // This check is more for a standard employee/manager trying to approve their own request at a lower level
-            if(request.getCurrentApprovalLevel() == 1 && approver.getUserId().equals(request.getDepartment().getManagerUserId())){
-                // A manager is approving their own request which is at level 1. This means it should go to level 2.
-                // This is not a "denied" self-approval, but a progression.
-                log.info("Manager UserID {} is 'approving' their own RequestID {} at Level 1. Progressing to Level 2.", approver.getUserId(), requestId);
+            if (step != null && step.isDepartmentManagerStep() && approver.getUserId().equals(request.getDepartment().getManagerUserId())) {
+                // A manager is approving their own request at the department review. This is a progression, not a "denied" self-approval.
+                log.info("Manager UserID {} is 'approving' their own RequestID {} at Level {}. Progressing.", approver.getUserId(), requestId, step.getLevel());
             } else {
                 throw new AccessDeniedException("You cannot approve your own request at this stage unless you are a Director acting as final approver.");
             }
@@ -86,164 +151,131 @@ public class ApprovalServiceImpl implements ApprovalService {
         int levelBeforeProcessing = request.getCurrentApprovalLevel();
 
         if ("reject".equalsIgnoreCase(decision)) {
-            processRejection(request, approver, reason);
-            notificationService.notifyRejection(request, approver);
+            processRejection(request, approver, step, reason);
+            outboxService.enqueueNotification(OutboxService.NOTIFY_REJECTION, request, approver.getUserId(), statusBeforeProcessing);
             return;
         }
 
-        // --- Approval Logic ---
-        switch (request.getCurrentApprovalLevel()) {
-            case 1: // Department Manager
-                processDepartmentManagerApproval(request, approver);
-                break;
-            case 2: // Procurement Manager
-                processProcurementManagerApproval(request, approver);
-                break;
-            case 3: // Director
-                processDirectorApproval(request, approver);
-                break;
-            default:
-                log.error("Request {} is at an invalid approval level: {}", requestId, request.getCurrentApprovalLevel());
-                throw new IllegalStateException("Request is at an invalid approval level: " + request.getCurrentApprovalLevel());
+        if (step == null) {
+            log.error("Request {} is at an invalid approval level: {}", requestId, request.getCurrentApprovalLevel());
+            throw new IllegalStateException("Request is at an invalid approval level: " + request.getCurrentApprovalLevel());
         }
+        processApproval(request, approver, workflow, step);
 
         // --- Notification Logic ---
         if ("Approved".equalsIgnoreCase(request.getStatus()) && !"Approved".equalsIgnoreCase(statusBeforeProcessing)) {
             // Final approval occurred in this step
-            notificationService.notifyFinalApproval(request, approver);
+            outboxService.enqueueNotification(OutboxService.NOTIFY_FINAL_APPROVAL, request, approver.getUserId(), statusBeforeProcessing);
         } else if ("Pending".equalsIgnoreCase(request.getStatus()) && request.getCurrentApprovalLevel() > levelBeforeProcessing) {
             // Moved to the next pending step
-            notificationService.notifyApprovalStep(request, approver, statusBeforeProcessing);
+            outboxService.enqueueNotification(OutboxService.NOTIFY_APPROVAL_STEP, request, approver.getUserId(), statusBeforeProcessing);
         } else if (isSelfApproval && request.getCurrentApprovalLevel() > levelBeforeProcessing) {
             // Specific case for manager approving own request, which then moves to next stage
             log.info("Manager {} approved their own request {}, which moved to level {}. Notifying next approvers.", approver.getEmail(), request.getRequestId(), request.getCurrentApprovalLevel());
-            notificationService.notifyApprovalStep(request, approver, statusBeforeProcessing);
+            outboxService.enqueueNotification(OutboxService.NOTIFY_APPROVAL_STEP, request, approver.getUserId(), statusBeforeProcessing);
         }
     }
 
+    private void processApproval(PurchaseRequest request, CurrentUserDto approver, ApprovalWorkflow workflow, ApprovalWorkflow.Step step) {
+        checkApproverForStep(request, approver, step);
 
-    private void processDepartmentManagerApproval(PurchaseRequest request, User approver) {
-        // Ensure department and its manager are loaded
-        Department requestDepartment = request.getDepartment();
-        if (requestDepartment == null) throw new IllegalStateException("Request department is null for RequestID: " + request.getRequestId());
-
-        User deptManager = requestDepartment.getManagerUser();
-        if (deptManager == null && requestDepartment.getManagerUserId() != null) {
-            deptManager = userRepository.findById(requestDepartment.getManagerUserId()).orElse(null);
+        // The value is only converted when the next step depends on it, and budget is checked
+        // before the approval row is written so a refusal leaves no trace
+        BigDecimal valueInTRY = null;
+        boolean highValue = false;
+        if (workflow.nextLevelDependsOnValue(step.getLevel())) {
+            valueInTRY = calculateRequestValueInTRY(request);
+            highValue = workflow.isHighValue(valueInTRY);
         }
-
-        if (deptManager == null || !deptManager.getUserId().equals(approver.getUserId())) {
-            // Check if approver is a generic "Manager" role and also the designated manager for *this* department
-            boolean isManagerRole = approver.getRoles().stream().anyMatch(r -> MANAGER_ROLE_NAME.equals(r.getRoleName()));
-            if (!isManagerRole || deptManager == null || !deptManager.getUserId().equals(approver.getUserId())) {
-                log.warn("Access Denied: User {} (ID: {}) is not the designated manager for department {} (ManagerID: {}) for request {}",
-                        approver.getEmail(), approver.getUserId(),
-                        requestDepartment.getDepartmentName(), requestDepartment.getManagerUserId(), request.getRequestId());
-                throw new AccessDeniedException("You are not the designated manager for this department or do not have the Manager role.");
-            }
+        int nextLevel = workflow.nextLevel(step.getLevel(), highValue);
+        if (nextLevel == ApprovalWorkflow.FINAL_LEVEL) {
+            consumeBudgetForRequest(request, approver, valueInTRY);
         }
-
-        logApprovalAction(request, approver, "Approved (Dept. Mgr)", null);
-        request.setCurrentApprovalLevel(2); // Move to Procurement Manager
-        request.setStatus("Pending"); // Still pending overall
+        String action = "Approved (" + step.getShortLabel() + ")";
+        logApprovalAction(request, approver, step, action, null);
+        if (nextLevel == ApprovalWorkflow.FINAL_LEVEL) {
+            request.setStatus("Approved");
+        } else {
+            request.setStatus("Pending"); // Still pending overall
+        }
+        request.setCurrentApprovalLevel(nextLevel);
         purchaseRequestRepository.save(request);
-        requestHistoryService.logAction(request.getRequestId(), approver.getEmail(), "Approved (Dept. Mgr)", "Department Manager approved.");
+        outboxService.enqueueHistory(request.getRequestId(), approver.getUserId(), action, step.getLabel() + " approved.");
     }
 
-    private void processProcurementManagerApproval(PurchaseRequest request, User approver) {
-        boolean isProcurementManager = approver.getRoles().stream().anyMatch(role -> PROCUREMENT_MANAGER_ROLE_NAME.equals(role.getRoleName()));
-        if (!isProcurementManager) {
-            throw new AccessDeniedException("User does not have the Procurement Manager role.");
-        }
-        logApprovalAction(request, approver, "Approved (Proc. Mgr)", null);
-
-        BigDecimal valueInTRY = calculateRequestValueInTRY(request);
-        if (valueInTRY.compareTo(HIGH_VALUE_THRESHOLD) > 0) {
-            request.setCurrentApprovalLevel(3); // Move to Director
-            request.setStatus("Pending");
-        } else {
-            consumeBudgetForRequest(request); // Final approval for < threshold
-            request.setStatus("Approved");
-            request.setCurrentApprovalLevel(99); // Mark as fully processed for approval levels
+    // Throws unless the approver may decide at the request's current level; never writes anything
+    private void checkApproverForLevel(PurchaseRequest request, CurrentUserDto approver) {
+        ApprovalWorkflow.Step step = approvalWorkflowService.current().getStep(request.getCurrentApprovalLevel());
+        if (step == null) {
+            throw new IllegalStateException("Request is at an invalid approval level: " + request.getCurrentApprovalLevel());
         }
-        purchaseRequestRepository.save(request);
-        requestHistoryService.logAction(request.getRequestId(), approver.getEmail(), "Approved (Proc. Mgr)", "Procurement Manager approved.");
+        checkApproverForStep(request, approver, step);
     }
 
-    private void processDirectorApproval(PurchaseRequest request, User approver) {
-        boolean isDirector = approver.getRoles().stream().anyMatch(role -> DIRECTOR_ROLE_NAME.equals(role.getRoleName()));
-        if (!isDirector) {
-            throw new AccessDeniedException("User does not have the Director role.");
+    private void checkApproverForStep(PurchaseRequest request, CurrentUserDto approver, ApprovalWorkflow.Step step) {
+        if (step.isDepartmentManagerStep()) {
+            Department requestDepartment = request.getDepartment();
+            if (requestDepartment == null) throw new IllegalStateException("Request department is null for RequestID: " + request.getRequestId());
+
+            // The manager's id is on the department row, so the manager User never has to be loaded
+            Integer deptManagerId = requestDepartment.getManagerUserId();
+            if (!approver.hasRole(step.getRoleName()) || deptManagerId == null || !deptManagerId.equals(approver.getUserId())) {
+                log.warn("Access Denied: User {} (ID: {}) is not the designated manager for department {} (ManagerID: {}) for request {}",
+                        approver.getEmail(), approver.getUserId(),
+                        requestDepartment.getDepartmentName(), deptManagerId, request.getRequestId());
+                throw new AccessDeniedException("You are not the designated manager for this department or do not have the Manager role.");
+            }
+        } else if (!approver.hasRole(step.getRoleName())) {
+            throw new AccessDeniedException("User does not have the " + step.getLabel() + " role.");
         }
-        logApprovalAction(request, approver, "Approved (Director)", null);
-        consumeBudgetForRequest(request); // Final approval
-        request.setStatus("Approved");
-        request.setCurrentApprovalLevel(99); // Mark as fully processed
-        purchaseRequestRepository.save(request);
-        requestHistoryService.logAction(request.getRequestId(), approver.getEmail(), "Approved (Director)", "Director approved.");
     }
 
-    private void processRejection(PurchaseRequest request, User approver, String reason) {
-        logApprovalAction(request, approver, "Rejected", reason);
+    private void processRejection(PurchaseRequest request, CurrentUserDto approver, ApprovalWorkflow.Step step, String reason) {
+        logApprovalAction(request, approver, step, "Rejected", reason);
+        budgetReservationService.releaseForRequest(request.getRequestId(), approver.getUserId());
         request.setStatus("Rejected");
         request.setRejectReason(reason);
         // CurrentApprovalLevel might be kept as is, or reset, depending on business rule.
         // For rejection, it typically stops.
         purchaseRequestRepository.save(request);
-        requestHistoryService.logAction(request.getRequestId(), approver.getEmail(), "Rejected", reason);
+        outboxService.enqueueHistory(request.getRequestId(), approver.getUserId(), "Rejected", reason);
     }
 
     @Override
     @Transactional
     public void returnForEdit(int requestId, String userEmail, String comments) {
-        User approver = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userEmail));
-        PurchaseRequest request = purchaseRequestRepository.findByIdWithAllDetails(requestId)
+        CurrentUserDto approver = currentUserService.resolve(userEmail);
+        PurchaseRequest request = purchaseRequestRepository.findForDecision(requestId)
                 .orElseThrow(() -> new RuntimeException("Purchase Request not found: " + requestId));
 
-        // Ensure creator is available for notification
-        if (request.getCreatedByUser() == null) {
-            request.setCreatedByUser(userRepository.findById(request.getCreatedByUser().getUserId()).orElseThrow());
-        }
-
-        logApprovalAction(request, approver, "Returned for Edit", comments);
+        logApprovalAction(request, approver, approvalWorkflowService.current().getStep(request.getCurrentApprovalLevel()),
+                "Returned for Edit", comments);
+        // The creator's resubmission reserves again
+        budgetReservationService.releaseForRequest(requestId, approver.getUserId());
 
         request.setStatus("Returned for Edit");
         request.setRejectReason(comments); // Using rejectReason for comments of return
 
         purchaseRequestRepository.save(request);
-        requestHistoryService.logAction(requestId, userEmail, "Returned for Edit", comments);
-        notificationService.notifyReturnForEdit(request, approver);
+        outboxService.enqueueHistory(requestId, approver.getUserId(), "Returned for Edit", comments);
+        outboxService.enqueueNotification(OutboxService.NOTIFY_RETURN_FOR_EDIT, request, approver.getUserId(), null);
     }
 
-    private void consumeBudgetForRequest(PurchaseRequest request) {
-        BudgetCode budgetCode = request.getBudgetCode();
-        BigDecimal requestAmountInTRY = calculateRequestValueInTRY(request);
-
-        if (budgetCode.getBudgetAmount().compareTo(requestAmountInTRY) < 0) {
-            throw new InsufficientBudgetException(
-                    String.format("Approval failed: Insufficient funds in budget code '%s'. Remaining: %.2f, Required: %.2f",
-                            budgetCode.getCode(),
-                            budgetCode.getBudgetAmount(),
-                            requestAmountInTRY)
-            );
+    private void consumeBudgetForRequest(PurchaseRequest request, CurrentUserDto approver, BigDecimal valueInTRY) {
+        Integer budgetCodeId = request.getBudgetCode().getBudgetCodeId();
+        BigDecimal amount = valueInTRY != null ? valueInTRY : calculateRequestValueInTRY(request);
+        // Thrown here, outside the budget service proxy, so a bulk run can skip this item and keep its transaction
+        if (!budgetService.consumeForRequest(budgetCodeId, request.getRequestId(), amount, approver.getUserId())) {
+            throw budgetService.insufficientFunds(budgetCodeId, amount);
         }
-
-        BigDecimal newBudgetAmount = budgetCode.getBudgetAmount().subtract(requestAmountInTRY);
-        budgetCode.setBudgetAmount(newBudgetAmount);
-        budgetCodeRepository.save(budgetCode);
-        log.info("Budget consumed for RequestID: {}. BudgetCode: {}, Consumed: {}, Remaining: {}",
-                request.getRequestId(), budgetCode.getCode(), requestAmountInTRY, newBudgetAmount);
     }
 
-    private void logApprovalAction(PurchaseRequest request, User approver, String status, String reason) {
-        ApprovalStep currentStep = approvalStepRepository.findByStepOrder(request.getCurrentApprovalLevel())
-                .orElse(null); // Step might be null if it's an ad-hoc action or auto-approval
-
+    // The step is null if it's an ad-hoc action or the request is past the last step
+    private void logApprovalAction(PurchaseRequest request, CurrentUserDto approver, ApprovalWorkflow.Step step, String status, String reason) {
         Approval approvalLog = new Approval();
         approvalLog.setPurchaseRequest(request);
-        approvalLog.setApprovalStep(currentStep); // Can be null
-        approvalLog.setApproverUser(approver);
+        approvalLog.setApprovalStep(step != null ? approvalStepRepository.getReferenceById(step.getApprovalStepId()) : null);
+        approvalLog.setApproverUser(userRepository.getReferenceById(approver.getUserId()));
         approvalLog.setApprovalStatus(status);
         approvalLog.setRejectReason(reason);
         approvalLog.setApprovalDate(LocalDateTime.now());
@@ -251,12 +283,6 @@ public class ApprovalServiceImpl implements ApprovalService {
     }
 
     private BigDecimal calculateRequestValueInTRY(PurchaseRequest request) {
-        if ("TRY".equalsIgnoreCase(request.getCurrency().getCurrencyCode())) {
-            return request.getNetAmount();
-        }
-        ExchangeRate exchangeRate = exchangeRateRepository
-                .findTopByCurrencyIdAndDateLessThanEqualOrderByDateDesc(request.getCurrency().getCurrencyId(), request.getCreatedAt().toLocalDate())
-                .orElseThrow(() -> new IllegalStateException("Exchange rate not found for currency code: " + request.getCurrency().getCurrencyCode() + " on or before " + request.getCreatedAt().toLocalDate()));
-        return request.getNetAmount().multiply(exchangeRate.getRate());
+        return exchangeRateService.convertToTRY(request.getNetAmount(), request.getCurrency(), request.getCreatedAt().toLocalDate());
     }
 }
\ No newline at end of file
@@ -0,0 +1,212 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.model.ApprovalStep;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Immutable transition table compiled from the ApprovalSteps rows, the high-value threshold and
+ * the role rules. Where an approval goes next and where a new request starts are precomputed per
+ * level, so a decision is a lookup. Obtain the current table from {@link ApprovalWorkflowService}.
+ */
+public final class ApprovalWorkflow {
+
+    // Stored in CurrentApprovalLevel once nothing is left to approve
+    public static final int FINAL_LEVEL = 99;
+
+    // Labels the approval log and history have always used for the built-in roles
+    private static final Map<String, String[]> ROLE_LABELS = Map.of(
+            AdminServiceImpl.MANAGER_ROLE_NAME, new String[]{"Department Manager", "Dept. Mgr"},
+            AdminServiceImpl.PROCUREMENT_MANAGER_ROLE_NAME, new String[]{"Procurement Manager", "Proc. Mgr"},
+            AdminServiceImpl.DIRECTOR_ROLE_NAME, new String[]{"Director", "Director"});
+
+    public static final class Step {
+        private final int level;
+        private final Integer approvalStepId;
+        private final Integer roleId;
+        private final String roleName;
+        private final String label;
+        private final String shortLabel;
+        private final boolean departmentManagerStep;
+        private final boolean highValueOnly;
+
+        private Step(ApprovalStep row, boolean departmentManagerStep, boolean highValueOnly) {
+            this.level = row.getStepOrder();
+            this.approvalStepId = row.getApprovalStepId();
+            this.roleId = row.getRequiredRole().getRoleId();
+            this.roleName = row.getRequiredRole().getRoleName();
+            String[] labels = ROLE_LABELS.get(roleName);
+            String fallback = row.getDescription() != null && !row.getDescription().isBlank() ? row.getDescription() : roleName;
+            this.label = labels != null ? labels[0] : fallback;
+            this.shortLabel = labels != null ? labels[1] : fallback;
+            this.departmentManagerStep = departmentManagerStep;
+            this.highValueOnly = highValueOnly;
+        }
+
+        public int getLevel() { return level; }
+        public Integer getApprovalStepId() { return approvalStepId; }
+        public Integer getRoleId() { return roleId; }
+        public String getRoleName() { return roleName; }
+        public String getLabel() { return label; }
+        public String getShortLabel() { return shortLabel; }
+        // Decided by the manager of the request's department rather than by everyone in the role
+        public boolean isDepartmentManagerStep() { return departmentManagerStep; }
+        // Skipped unless the request's value is above the high-value threshold
+        public boolean isHighValueOnly() { return highValueOnly; }
+    }
+
+    private final Map<Integer, Step> stepsByLevel;
+    private final int[][] nextLevels; // [level][highValue ? 1 : 0]; level 0 is "not yet in the workflow"
+    private final Map<String, Integer> coveredLevelByRole;
+    private final Map<String, Integer> reviewCoveredLevelByRole;
+    private final Set<String> routedRoleNames;
+    private final BigDecimal highValueThreshold;
+    private final int lastLevel;
+    private final LocalDateTime compiledAt;
+
+    private ApprovalWorkflow(Map<Integer, Step> stepsByLevel, int[][] nextLevels,
+                             Map<String, Integer> coveredLevelByRole, Map<String, Integer> reviewCoveredLevelByRole,
+                             Set<String> routedRoleNames, BigDecimal highValueThreshold, int lastLevel) {
+        this.stepsByLevel = stepsByLevel;
+        this.nextLevels = nextLevels;
+        this.coveredLevelByRole = coveredLevelByRole;
+        this.reviewCoveredLevelByRole = reviewCoveredLevelByRole;
+        this.routedRoleNames = routedRoleNames;
+        this.highValueThreshold = highValueThreshold;
+        this.lastLevel = lastLevel;
+        this.compiledAt = LocalDateTime.now();
+    }
+
+    /**
+     * Builds the table. A submitter "covers" every level up to the highest step requiring one of
+     * their roles, and the exempt roles also cover the department manager step; a new request
+     * starts at the first applicable step above that.
+     */
+    static ApprovalWorkflow compile(List<ApprovalStep> rows, BigDecimal highValueThreshold, Set<String> highValueRoles,
+                                    String departmentManagerRole, Set<String> departmentReviewExemptRoles) {
+        Map<Integer, Step> steps = new TreeMap<>();
+        for (ApprovalStep row : rows) {
+            if (row.getStepOrder() < 1 || row.getStepOrder() >= FINAL_LEVEL) {
+                throw new IllegalStateException("ApprovalStep " + row.getApprovalStepId() + " has an unusable StepOrder " + row.getStepOrder());
+            }
+            String roleName = row.getRequiredRole().getRoleName();
+            Step step = new Step(row, departmentManagerRole.equals(roleName), highValueRoles.contains(roleName));
+            if (steps.putIfAbsent(step.getLevel(), step) != null) {
+                throw new IllegalStateException("More than one ApprovalStep with StepOrder " + step.getLevel());
+            }
+        }
+        int lastLevel = steps.isEmpty() ? 0 : ((TreeMap<Integer, Step>) steps).lastKey();
+
+        int[][] nextLevels = new int[lastLevel + 1][2];
+        for (int level = 0; level <= lastLevel; level++) {
+            nextLevels[level][0] = firstApplicableAfter(steps, level, false);
+            nextLevels[level][1] = firstApplicableAfter(steps, level, true);
+        }
+
+        Map<String, Integer> covered = new HashMap<>();
+        Set<Integer> reviewLevels = new LinkedHashSet<>();
+        Set<String> routed = new LinkedHashSet<>();
+        for (Step step : steps.values()) {
+            covered.merge(step.getRoleName(), step.getLevel(), Math::max);
+            if (step.isDepartmentManagerStep()) {
+                reviewLevels.add(step.getLevel());
+            } else {
+                routed.add(step.getRoleName());
+            }
+        }
+        for (Integer reviewLevel : reviewLevels) {
+            departmentReviewExemptRoles.forEach(role -> covered.merge(role, reviewLevel, Math::max));
+        }
+        Map<String, Integer> reviewCovered = new HashMap<>();
+        covered.forEach((role, level) -> {
+            if (reviewLevels.contains(level)) reviewCovered.put(role, level);
+        });
+
+        return new ApprovalWorkflow(Map.copyOf(steps), nextLevels, Map.copyOf(covered), Map.copyOf(reviewCovered),
+                Set.copyOf(routed), highValueThreshold, lastLevel);
+    }
+
+    private static int firstApplicableAfter(Map<Integer, Step> steps, int level, boolean highValue) {
+        for (Step step : steps.values()) {
+            if (step.getLevel() > level && (highValue || !step.isHighValueOnly())) {
+                return step.getLevel();
+            }
+        }
+        return FINAL_LEVEL;
+    }
+
+    public Step getStep(int level) {
+        return stepsByLevel.get(level);
+    }
+
+    public boolean isHighValue(BigDecimal valueInTRY) {
+        return valueInTRY.compareTo(highValueThreshold) > 0;
+    }
+
+    // When false the caller can skip converting the request's value to TRY
+    public boolean nextLevelDependsOnValue(int level) {
+        return level >= 0 && level <= lastLevel && nextLevels[level][0] != nextLevels[level][1];
+    }
+
+    public int nextLevel(int level, boolean highValue) {
+        if (level < 0 || level > lastLevel) {
+            throw new IllegalStateException("Request is at an invalid approval level: " + level);
+        }
+        return nextLevels[level][highValue ? 1 : 0];
+    }
+
+    // FINAL_LEVEL means the submitter's own roles already approve the request
+    public int entryLevel(Collection<String> roleNames, boolean highValue) {
+        if (lastLevel == 0) {
+            // Fail closed rather than auto-approve everything
+            throw new IllegalStateException("No approval steps are configured");
+        }
+        return nextLevels[Math.min(coveredLevel(roleNames, coveredLevelByRole), lastLevel)][highValue ? 1 : 0];
+    }
+
+    // Edits never approve themselves: a submitter who would auto-approve restarts after the department review only
+    public int resubmissionLevel(Collection<String> roleNames, boolean highValue) {
+        int level = entryLevel(roleNames, highValue);
+        return level != FINAL_LEVEL ? level
+                : nextLevels[Math.min(coveredLevel(roleNames, reviewCoveredLevelByRole), lastLevel)][highValue ? 1 : 0];
+    }
+
+    // Holders of the last step's role may approve requests they created themselves
+    public boolean isFinalAuthority(Collection<String> roleNames) {
+        return lastLevel > 0 && coveredLevel(roleNames, coveredLevelByRole) >= lastLevel;
+    }
+
+    private static int coveredLevel(Collection<String> roleNames, Map<String, Integer> coverage) {
+        int covered = 0;
+        for (String roleName : roleNames) {
+            covered = Math.max(covered, coverage.getOrDefault(roleName, 0));
+        }
+        return covered;
+    }
+
+    // Roles whose steps are routed by role membership rather than to the department manager
+    public Set<String> getRoutedRoleNames() {
+        return routedRoleNames;
+    }
+
+    public List<Step> getSteps() {
+        return stepsByLevel.values().stream().sorted(Comparator.comparingInt(Step::getLevel)).toList();
+    }
+
+    public BigDecimal getHighValueThreshold() {
+        return highValueThreshold;
+    }
+
+    public LocalDateTime getCompiledAt() {
+        return compiledAt;
+    }
+}
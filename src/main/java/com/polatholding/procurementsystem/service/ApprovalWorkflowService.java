@@ -0,0 +1,14 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.dto.ApprovalWorkflowDto;
+
+public interface ApprovalWorkflowService {
+
+    // The table in effect; compiled at startup and replaced whole on reload
+    ApprovalWorkflow current();
+
+    // Null when no table has compiled yet, even after this attempt
+    ApprovalWorkflowDto reload();
+
+    ApprovalWorkflowDto describe();
+}
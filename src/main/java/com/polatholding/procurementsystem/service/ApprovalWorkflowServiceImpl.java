@@ -0,0 +1,102 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.dto.ApprovalWorkflowDto;
+import com.polatholding.procurementsystem.dto.ApprovalWorkflowStepDto;
+import com.polatholding.procurementsystem.repository.ApprovalStepRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Keeps the compiled {@link ApprovalWorkflow}. The ApprovalSteps table is tiny, so it is re-read on
+ * a fixed delay and the table swapped when the rows changed; a failed reload keeps the previous table.
+ */
+@Service
+public class ApprovalWorkflowServiceImpl implements ApprovalWorkflowService {
+
+    private static final Logger log = LoggerFactory.getLogger(ApprovalWorkflowServiceImpl.class);
+
+    private final ApprovalStepRepository approvalStepRepository;
+    private final BigDecimal highValueThreshold;
+    private final Set<String> highValueRoles;
+    private final Set<String> departmentReviewExemptRoles;
+
+    private volatile ApprovalWorkflow workflow;
+
+    public ApprovalWorkflowServiceImpl(ApprovalStepRepository approvalStepRepository,
+                                       @Value("${procurement.approvals.workflow.high-value-threshold:1000000}") BigDecimal highValueThreshold,
+                                       @Value("${procurement.approvals.workflow.high-value-roles:Director}") Set<String> highValueRoles,
+                                       @Value("${procurement.approvals.workflow.department-review-exempt-roles:Finance Officer}") Set<String> departmentReviewExemptRoles) {
+        this.approvalStepRepository = approvalStepRepository;
+        this.highValueThreshold = highValueThreshold;
+        this.highValueRoles = highValueRoles;
+        this.departmentReviewExemptRoles = departmentReviewExemptRoles;
+    }
+
+    // Compiled off the startup thread so an unreachable database does not hold up readiness;
+    // a decision arriving first compiles it through current()
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        Thread.ofPlatform().name("approval-workflow").daemon(true).start(this::reload);
+    }
+
+    @Scheduled(fixedDelayString = "${procurement.approvals.workflow.reload-ms:60000}",
+            initialDelayString = "${procurement.approvals.workflow.reload-ms:60000}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    @Override
+    public ApprovalWorkflow current() {
+        ApprovalWorkflow current = workflow;
+        if (current == null) {
+            reload();
+            current = workflow;
+            if (current == null) {
+                throw new IllegalStateException("Approval workflow could not be loaded");
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public synchronized ApprovalWorkflowDto reload() {
+        try {
+            ApprovalWorkflow compiled = ApprovalWorkflow.compile(approvalStepRepository.findAllWithRequiredRole(),
+                    highValueThreshold, highValueRoles, AdminServiceImpl.MANAGER_ROLE_NAME, departmentReviewExemptRoles);
+            ApprovalWorkflow previous = workflow;
+            workflow = compiled;
+            if (previous == null || !Objects.equals(toDto(previous).getSteps(), toDto(compiled).getSteps())) {
+                log.info("Approval workflow compiled: {} steps, levels {}", compiled.getSteps().size(),
+                        compiled.getSteps().stream().map(step -> step.getLevel() + "=" + step.getRoleName()).toList());
+            }
+        } catch (DataAccessException | IllegalStateException e) {
+            log.error("Could not compile the approval workflow, keeping the previous table: {}", e.getMessage());
+        }
+        return workflow != null ? toDto(workflow) : null;
+    }
+
+    @Override
+    public ApprovalWorkflowDto describe() {
+        return toDto(current());
+    }
+
+    private static ApprovalWorkflowDto toDto(ApprovalWorkflow workflow) {
+        List<ApprovalWorkflowStepDto> steps = workflow.getSteps().stream()
+                .map(step -> new ApprovalWorkflowStepDto(step.getLevel(), step.getApprovalStepId(), step.getRoleName(),
+                        step.getLabel(), step.isDepartmentManagerStep(), step.isHighValueOnly(),
+                        workflow.nextLevel(step.getLevel(), false), workflow.nextLevel(step.getLevel(), true)))
+                .toList();
+        return new ApprovalWorkflowDto(workflow.getCompiledAt(), workflow.getHighValueThreshold(), steps);
+    }
+}
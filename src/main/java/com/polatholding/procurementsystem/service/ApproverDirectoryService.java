@@ -0,0 +1,17 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.dto.CacheStatsDto;
+
+import java.util.List;
+
+public interface ApproverDirectoryService {
+
+    // Active (non-former) users who decide at the given approval level; empty past the last step
+    List<Integer> getApproverIds(int approvalLevel, Integer departmentManagerUserId);
+
+    List<Integer> getActiveUserIdsInRole(Integer roleId);
+
+    void evictAll();
+
+    CacheStatsDto getCacheStats();
+}
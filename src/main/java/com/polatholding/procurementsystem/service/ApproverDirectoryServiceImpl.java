@@ -0,0 +1,85 @@
+package com.polatholding.procurementsystem.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.polatholding.procurementsystem.dto.CacheStatsDto;
+import com.polatholding.procurementsystem.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Who approves at each level: the step comes from the compiled {@link ApprovalWorkflow}, and the
+ * active user ids per role are cached here. Admin user changes clear the whole cache, since one
+ * edit can move a user between roles; there is one small entry per approving role.
+ */
+@Service
+public class ApproverDirectoryServiceImpl implements ApproverDirectoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(ApproverDirectoryServiceImpl.class);
+
+    private final UserRepository userRepository;
+    private final ApprovalWorkflowService approvalWorkflowService;
+    private final Cache<Integer, List<Integer>> activeUserIdsByRole;
+
+    public ApproverDirectoryServiceImpl(UserRepository userRepository,
+                                        ApprovalWorkflowService approvalWorkflowService,
+                                        @Value("${procurement.cache.approvers.ttl-minutes:60}") long ttlMinutes) {
+        this.userRepository = userRepository;
+        this.approvalWorkflowService = approvalWorkflowService;
+        this.activeUserIdsByRole = Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public List<Integer> getApproverIds(int approvalLevel, Integer departmentManagerUserId) {
+        ApprovalWorkflow.Step step = approvalWorkflowService.current().getStep(approvalLevel);
+        if (step == null) {
+            return List.of();
+        }
+        List<Integer> inRole = getActiveUserIdsInRole(step.getRoleId());
+        if (step.isDepartmentManagerStep()) {
+            // Only the department's own manager, and only while they still hold the role and work here
+            return departmentManagerUserId != null && inRole.contains(departmentManagerUserId)
+                    ? List.of(departmentManagerUserId) : List.of();
+        }
+        return inRole;
+    }
+
+    @Override
+    public List<Integer> getActiveUserIdsInRole(Integer roleId) {
+        return activeUserIdsByRole.get(roleId, id -> List.copyOf(userRepository.findActiveUserIdsByRoleId(id)));
+    }
+
+    @Override
+    public void evictAll() {
+        // Evicting again after commit stops a concurrent lookup from re-caching the pre-update membership
+        activeUserIdsByRole.invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    activeUserIdsByRole.invalidateAll();
+                }
+            });
+        }
+        log.debug("Approver directory cleared");
+    }
+
+    @Override
+    public CacheStatsDto getCacheStats() {
+        CacheStats stats = activeUserIdsByRole.stats();
+        return new CacheStatsDto("approvers", activeUserIdsByRole.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount());
+    }
+}
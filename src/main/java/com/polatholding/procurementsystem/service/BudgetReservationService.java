@@ -0,0 +1,22 @@
+package com.polatholding.procurementsystem.service;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+
+public interface BudgetReservationService {
+
+    // Reserves amountInTRY for a pending request, moving any reservation it already holds.
+    // Throws InsufficientBudgetException when the budget minus other reservations does not cover it.
+    void reserveForRequest(Integer budgetCodeId, Integer requestId, BigDecimal amountInTRY, Integer userId);
+
+    // Releases whatever the request still holds (no-op if nothing)
+    void releaseForRequest(Integer requestId, Integer userId);
+
+    // Amount held by pending requests per budget code, served from memory
+    Map<Integer, BigDecimal> getReservedTotals(Collection<Integer> budgetCodeIds);
+
+    // Rebuilds the in-memory totals from the ledger, skipping any with a transaction in flight;
+    // returns how many had drifted
+    int reconcile();
+}
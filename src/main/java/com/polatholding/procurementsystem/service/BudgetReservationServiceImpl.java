@@ -0,0 +1,215 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.exception.InsufficientBudgetException;
+import com.polatholding.procurementsystem.model.BudgetCode;
+import com.polatholding.procurementsystem.model.BudgetLedgerEntry;
+import com.polatholding.procurementsystem.repository.BudgetCodeRepository;
+import com.polatholding.procurementsystem.repository.BudgetLedgerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Soft budget reservations. The ledger is the record; the per-budget running totals are kept
+ * in memory so the request form can show "available" without summing the ledger. Totals are
+ * loaded lazily, adjusted after each commit, and rebuilt from the ledger on a schedule, which
+ * also picks up reservations made on other nodes. Final consumption stays authoritative.
+ * <p>
+ * A ledger read is only cached if no transaction touching that budget code was in flight while it
+ * ran; otherwise a commit landing between the read and its afterCommit delta would be counted twice.
+ */
+@Service
+public class BudgetReservationServiceImpl implements BudgetReservationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BudgetReservationServiceImpl.class);
+
+    private final BudgetLedgerRepository budgetLedgerRepository;
+    private final BudgetCodeRepository budgetCodeRepository;
+
+    private final Map<Integer, BigDecimal> reservedByBudgetCode = new ConcurrentHashMap<>();
+    // Per budget code: transactions with an uncommitted delta, and how many have ever started
+    private final Map<Integer, AtomicInteger> inFlightByBudgetCode = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicLong> startedByBudgetCode = new ConcurrentHashMap<>();
+
+    public BudgetReservationServiceImpl(BudgetLedgerRepository budgetLedgerRepository,
+                                        BudgetCodeRepository budgetCodeRepository) {
+        this.budgetLedgerRepository = budgetLedgerRepository;
+        this.budgetCodeRepository = budgetCodeRepository;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserveForRequest(Integer budgetCodeId, Integer requestId, BigDecimal amountInTRY, Integer userId) {
+        // Read the total before this transaction writes to the ledger so the load cannot see our own rows
+        BigDecimal reserved = getReservedTotals(List.of(budgetCodeId)).get(budgetCodeId);
+        Map<Integer, BigDecimal> held = heldByRequest(requestId);
+        release(requestId, held, userId);
+
+        BigDecimal available = budgetCodeRepository.findBudgetAmount(budgetCodeId)
+                .subtract(reserved)
+                .add(held.getOrDefault(budgetCodeId, BigDecimal.ZERO));
+        if (available.compareTo(amountInTRY) < 0) {
+            String code = budgetCodeRepository.findById(budgetCodeId).map(BudgetCode::getCode).orElse(String.valueOf(budgetCodeId));
+            throw new InsufficientBudgetException(
+                    String.format("Insufficient funds in budget code '%s'. Available after pending requests: %.2f, Required: %.2f",
+                            code, available, amountInTRY));
+        }
+        budgetLedgerRepository.save(newEntry(budgetCodeId, requestId, BudgetLedgerEntry.TYPE_RESERVE, amountInTRY, userId));
+        adjustAfterCommit(budgetCodeId, amountInTRY);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void releaseForRequest(Integer requestId, Integer userId) {
+        release(requestId, heldByRequest(requestId), userId);
+    }
+
+    private void release(Integer requestId, Map<Integer, BigDecimal> held, Integer userId) {
+        held.forEach((budgetCodeId, amount) -> {
+            budgetLedgerRepository.save(newEntry(budgetCodeId, requestId, BudgetLedgerEntry.TYPE_RELEASE, amount, userId));
+            adjustAfterCommit(budgetCodeId, amount.negate());
+        });
+    }
+
+    private Map<Integer, BigDecimal> heldByRequest(Integer requestId) {
+        Map<Integer, BigDecimal> held = new HashMap<>();
+        for (Object[] row : budgetLedgerRepository.sumReservedForRequest(requestId)) {
+            BigDecimal amount = (BigDecimal) row[1];
+            if (amount.signum() > 0) {
+                held.put((Integer) row[0], amount);
+            }
+        }
+        return held;
+    }
+
+    private static BudgetLedgerEntry newEntry(Integer budgetCodeId, Integer requestId, String type, BigDecimal amount, Integer userId) {
+        BudgetLedgerEntry entry = new BudgetLedgerEntry();
+        entry.setBudgetCodeId(budgetCodeId);
+        entry.setRequestId(requestId);
+        entry.setEntryType(type);
+        entry.setAmount(amount);
+        entry.setCreatedByUserId(userId);
+        entry.setCreatedAt(LocalDateTime.now());
+        return entry;
+    }
+
+    // Totals not loaded yet are left alone; they will be read from the committed ledger
+    private void adjustAfterCommit(Integer budgetCodeId, BigDecimal delta) {
+        Runnable adjust = () -> reservedByBudgetCode.computeIfPresent(budgetCodeId, (id, total) -> total.add(delta));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            AtomicInteger inFlight = inFlightByBudgetCode.computeIfAbsent(budgetCodeId, id -> new AtomicInteger());
+            inFlight.incrementAndGet();
+            startedByBudgetCode.computeIfAbsent(budgetCodeId, id -> new AtomicLong()).incrementAndGet();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    adjust.run();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    inFlight.decrementAndGet();
+                }
+            });
+        } else {
+            adjust.run();
+        }
+    }
+
+    // Taken before a ledger read; null when a transaction on the budget code is still in flight
+    private Long quietStamp(Integer budgetCodeId) {
+        AtomicInteger inFlight = inFlightByBudgetCode.get(budgetCodeId);
+        if (inFlight != null && inFlight.get() > 0) {
+            return null;
+        }
+        AtomicLong started = startedByBudgetCode.get(budgetCodeId);
+        return started != null ? started.get() : 0L;
+    }
+
+    // True if no transaction on the budget code started since quietStamp, so the read saw every committed delta and no pending one
+    private boolean stillQuiet(Integer budgetCodeId, Long stamp) {
+        return stamp != null && stamp.equals(quietStamp(budgetCodeId));
+    }
+
+    @Override
+    public Map<Integer, BigDecimal> getReservedTotals(Collection<Integer> budgetCodeIds) {
+        Map<Integer, BigDecimal> totals = new HashMap<>();
+        Map<Integer, Long> stamps = new HashMap<>();
+        for (Integer id : budgetCodeIds) {
+            BigDecimal cached = reservedByBudgetCode.get(id);
+            if (cached != null) {
+                totals.put(id, cached);
+            } else {
+                stamps.put(id, quietStamp(id));
+            }
+        }
+        if (!stamps.isEmpty()) {
+            Map<Integer, BigDecimal> loaded = loadFromLedger(stamps.keySet());
+            stamps.forEach((id, stamp) -> {
+                BigDecimal total = loaded.getOrDefault(id, BigDecimal.ZERO);
+                totals.put(id, total);
+                // Checked inside compute so a delta cannot be applied between the check and the store
+                reservedByBudgetCode.compute(id, (key, current) ->
+                        current == null && stillQuiet(id, stamp) ? total : current);
+            });
+        }
+        return totals;
+    }
+
+    private Map<Integer, BigDecimal> loadFromLedger(Collection<Integer> budgetCodeIds) {
+        Map<Integer, BigDecimal> totals = new HashMap<>();
+        for (Object[] row : budgetLedgerRepository.sumReservedByBudgetCode(budgetCodeIds)) {
+            totals.put((Integer) row[0], (BigDecimal) row[1]);
+        }
+        return totals;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${procurement.budget.reservations.reconcile-ms:300000}")
+    public int reconcile() {
+        Map<Integer, Long> stamps = new HashMap<>();
+        reservedByBudgetCode.keySet().forEach(id -> stamps.put(id, quietStamp(id)));
+        if (stamps.isEmpty()) {
+            return 0;
+        }
+        Map<Integer, BigDecimal> ledger = loadFromLedger(stamps.keySet());
+        int drifted = 0;
+        int busy = 0;
+        for (Map.Entry<Integer, Long> stamp : stamps.entrySet()) {
+            Integer id = stamp.getKey();
+            BigDecimal actual = ledger.getOrDefault(id, BigDecimal.ZERO);
+            BigDecimal[] previous = new BigDecimal[1];
+            boolean[] replaced = new boolean[1];
+            reservedByBudgetCode.computeIfPresent(id, (key, current) -> {
+                previous[0] = current;
+                replaced[0] = stillQuiet(id, stamp.getValue());
+                return replaced[0] ? actual : current;
+            });
+            if (!replaced[0]) {
+                busy++; // Left for the next run; its in-flight deltas keep the cached total current
+            } else if (previous[0].compareTo(actual) != 0) {
+                drifted++;
+                log.debug("Reserved total for BudgetCodeID {} drifted: memory {}, ledger {}", id, previous[0], actual);
+            }
+        }
+        if (drifted > 0 || busy > 0) {
+            log.info("Budget reservation reconcile corrected {} of {} totals ({} skipped while in use)", drifted, stamps.size(), busy);
+        }
+        return drifted;
+    }
+}
@@ -2,8 +2,10 @@ package com.polatholding.procurementsystem.service;
 
 import com.polatholding.procurementsystem.dto.BudgetDto;
 import com.polatholding.procurementsystem.dto.BudgetFormDto;
+import com.polatholding.procurementsystem.exception.InsufficientBudgetException;
 import com.polatholding.procurementsystem.model.Department;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 public interface BudgetService {
@@ -13,4 +15,10 @@ public interface BudgetService {
     BudgetFormDto getBudgetFormById(Integer budgetId);
     void updateBudget(Integer budgetId, BudgetFormDto formDto);
     BudgetDto getBudgetById(Integer budgetId);
+    // Atomically takes amountInTRY from the budget code, records it in the ledger and releases the
+    // request's reservation; joins the caller's transaction. Returns false, changing nothing, if the
+    // remaining balance does not cover it; the caller decides whether that aborts its transaction.
+    boolean consumeForRequest(Integer budgetCodeId, Integer requestId, BigDecimal amountInTRY, Integer userId);
+    // Describes a refused consumeForRequest for the caller to throw
+    InsufficientBudgetException insufficientFunds(Integer budgetCodeId, BigDecimal amountInTRY);
 }
\ No newline at end of file
@@ -2,26 +2,44 @@ package com.polatholding.procurementsystem.service;
 
 import com.polatholding.procurementsystem.dto.BudgetDto;
 import com.polatholding.procurementsystem.dto.BudgetFormDto;
+import com.polatholding.procurementsystem.exception.InsufficientBudgetException;
 import com.polatholding.procurementsystem.model.BudgetCode;
+import com.polatholding.procurementsystem.model.BudgetLedgerEntry;
 import com.polatholding.procurementsystem.model.Department;
 import com.polatholding.procurementsystem.repository.BudgetCodeRepository;
+import com.polatholding.procurementsystem.repository.BudgetLedgerRepository;
 import com.polatholding.procurementsystem.repository.DepartmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
 public class BudgetServiceImpl implements BudgetService {
 
+    private static final Logger log = LoggerFactory.getLogger(BudgetServiceImpl.class);
+
     private final BudgetCodeRepository budgetCodeRepository;
     private final DepartmentRepository departmentRepository;
+    private final ReferenceDataService referenceDataService;
+    private final BudgetLedgerRepository budgetLedgerRepository;
+    private final BudgetReservationService budgetReservationService;
 
-    public BudgetServiceImpl(BudgetCodeRepository budgetCodeRepository, DepartmentRepository departmentRepository) {
+    public BudgetServiceImpl(BudgetCodeRepository budgetCodeRepository, DepartmentRepository departmentRepository,
+                             ReferenceDataService referenceDataService, BudgetLedgerRepository budgetLedgerRepository,
+                             BudgetReservationService budgetReservationService) {
         this.budgetCodeRepository = budgetCodeRepository;
         this.departmentRepository = departmentRepository;
+        this.referenceDataService = referenceDataService;
+        this.budgetLedgerRepository = budgetLedgerRepository;
+        this.budgetReservationService = budgetReservationService;
     }
 
     @Override
@@ -86,6 +104,7 @@ public class BudgetServiceImpl implements BudgetService {
 
         // 4. Save the updated entity. Hibernate will generate an UPDATE statement.
         budgetCodeRepository.save(budgetCodeToUpdate);
+        referenceDataService.evictBudgetCode(budgetId);
     }
 
     @Override
@@ -104,4 +123,35 @@ public class BudgetServiceImpl implements BudgetService {
         }
         return dto;
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean consumeForRequest(Integer budgetCodeId, Integer requestId, BigDecimal amountInTRY, Integer userId) {
+        // No exception here: one thrown through this proxy would mark the caller's transaction rollback-only
+        if (budgetCodeRepository.tryConsume(budgetCodeId, amountInTRY) == 0) {
+            return false;
+        }
+        BudgetLedgerEntry entry = new BudgetLedgerEntry();
+        entry.setBudgetCodeId(budgetCodeId);
+        entry.setRequestId(requestId);
+        entry.setEntryType(BudgetLedgerEntry.TYPE_CONSUME);
+        entry.setAmount(amountInTRY);
+        entry.setCreatedByUserId(userId);
+        entry.setCreatedAt(LocalDateTime.now());
+        // The unique CONSUME-per-request index rolls the whole transaction back if this request was already consumed
+        budgetLedgerRepository.save(entry);
+        // Only once the consumption stands, so a refused bulk item keeps its reservation
+        budgetReservationService.releaseForRequest(requestId, userId);
+        log.info("Budget consumed for RequestID: {}. BudgetCodeID: {}, Consumed: {}", requestId, budgetCodeId, amountInTRY);
+        return true;
+    }
+
+    @Override
+    public InsufficientBudgetException insufficientFunds(Integer budgetCodeId, BigDecimal amountInTRY) {
+        BigDecimal remaining = budgetCodeRepository.findBudgetAmount(budgetCodeId);
+        String code = budgetCodeRepository.findById(budgetCodeId).map(BudgetCode::getCode).orElse(String.valueOf(budgetCodeId));
+        return new InsufficientBudgetException(
+                String.format("Insufficient funds in budget code '%s'. Remaining: %.2f, Required: %.2f",
+                        code, remaining, amountInTRY));
+    }
+}
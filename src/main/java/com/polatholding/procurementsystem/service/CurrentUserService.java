@@ -0,0 +1,9 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.dto.CurrentUserDto;
+
+public interface CurrentUserService {
+
+    // The request's resolved user when the e-mail is the logged-in one, otherwise the cached user snapshot
+    CurrentUserDto resolve(String userEmail);
+}
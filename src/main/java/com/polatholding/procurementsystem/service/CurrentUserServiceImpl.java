@@ -0,0 +1,34 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.config.security.CurrentUserContext;
+import com.polatholding.procurementsystem.dto.CurrentUserDto;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+
+@Service
+public class CurrentUserServiceImpl implements CurrentUserService {
+
+    private final CurrentUserContext currentUserContext; // request-scoped proxy
+    private final UserAuthCacheService userAuthCacheService;
+
+    public CurrentUserServiceImpl(CurrentUserContext currentUserContext, UserAuthCacheService userAuthCacheService) {
+        this.currentUserContext = currentUserContext;
+        this.userAuthCacheService = userAuthCacheService;
+    }
+
+    @Override
+    public CurrentUserDto resolve(String userEmail) {
+        // The proxy can only be touched while a request is bound to this thread
+        if (RequestContextHolder.getRequestAttributes() != null) {
+            CurrentUserDto current = currentUserContext.getCurrentUser();
+            if (current != null && current.getEmail().equalsIgnoreCase(userEmail)) {
+                return current;
+            }
+        }
+        return userAuthCacheService.findByEmail(userEmail)
+                .map(user -> new CurrentUserDto(user.getUserId(), user.getEmail(), user.getDepartmentId(),
+                        user.getRoleIdsByName()))
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userEmail));
+    }
+}
@@ -18,10 +18,13 @@ public class DepartmentServiceImpl implements DepartmentService {
 
     private final DepartmentRepository departmentRepository;
     private final UserRepository userRepository;
+    private final UserAuthCacheService userAuthCacheService;
 
-    public DepartmentServiceImpl(DepartmentRepository departmentRepository, UserRepository userRepository) {
+    public DepartmentServiceImpl(DepartmentRepository departmentRepository, UserRepository userRepository,
+                                 UserAuthCacheService userAuthCacheService) {
         this.departmentRepository = departmentRepository;
         this.userRepository = userRepository;
+        this.userAuthCacheService = userAuthCacheService;
     }
 
     @Override
@@ -58,6 +61,7 @@ public class DepartmentServiceImpl implements DepartmentService {
         dept.setDepartmentName(formDto.getDepartmentName());
         dept.setManagerUserId(formDto.getManagerUserId());
         departmentRepository.save(dept);
+        userAuthCacheService.evictAll(); // the procurement staff flag depends on the department name
     }
 
     @Override
@@ -1,5 +1,17 @@
 package com.polatholding.procurementsystem.service;
 
+import com.polatholding.procurementsystem.model.Currency;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
 public interface ExchangeRateService {
     void updateDailyExchangeRates();
-}
\ No newline at end of file
+
+    // TRY per one unit of the currency, using the latest rate dated on or before the given day
+    BigDecimal getRateToTRY(Currency currency, LocalDate date);
+
+    BigDecimal convertToTRY(BigDecimal amount, Currency currency, LocalDate date);
+
+    void reloadRates();
+}
@@ -2,7 +2,6 @@ package com.polatholding.procurementsystem.service;
 
 import com.polatholding.procurementsystem.dto.ExchangeRateApiResponse;
 import com.polatholding.procurementsystem.model.Currency;
-import com.polatholding.procurementsystem.model.ExchangeRate;
 import com.polatholding.procurementsystem.repository.CurrencyRepository;
 import com.polatholding.procurementsystem.repository.ExchangeRateRepository;
 import org.slf4j.Logger;
@@ -11,11 +10,18 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 @Service
 public class ExchangeRateServiceImpl implements ExchangeRateService {
@@ -30,6 +36,10 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
     @Value("${exchange.rate.api.url}")
     private String apiUrl;
 
+    // CurrencyID -> (Date -> TRY rate). Loaded on first lookup, then kept current by updateDailyExchangeRates.
+    private final Map<Integer, NavigableMap<LocalDate, BigDecimal>> rateSeries = new ConcurrentHashMap<>();
+    private volatile boolean seriesLoaded = false;
+
     public ExchangeRateServiceImpl(RestTemplate restTemplate,
                                    CurrencyRepository currencyRepository,
                                    ExchangeRateRepository exchangeRateRepository,
@@ -95,7 +105,74 @@ public class ExchangeRateServiceImpl implements ExchangeRateService {
             // Pass the date to the dbHelper method
             dbHelper.updateExchangeRate(currencyCode, rate, date);
             log.debug("Saved/updated exchange rate for {} on {} using procedure", currencyCode, date);
+            putRateAfterCommit(currency.getCurrencyId(), date, rate);
         }, () -> log.warn("Currency not found for code {}", currencyCode));
     }
+
+    // Only publish the new rate to readers once the procedure's write is committed
+    private void putRateAfterCommit(Integer currencyId, LocalDate date, BigDecimal rate) {
+        Runnable put = () -> {
+            if (seriesLoaded) {
+                rateSeries.computeIfAbsent(currencyId, id -> new ConcurrentSkipListMap<>()).put(date, rate);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put.run();
+                }
+            });
+        } else {
+            put.run();
+        }
+    }
+
+    @Override
+    public BigDecimal getRateToTRY(Currency currency, LocalDate date) {
+        if ("TRY".equalsIgnoreCase(currency.getCurrencyCode())) {
+            return BigDecimal.ONE;
+        }
+        ensureSeriesLoaded();
+        NavigableMap<LocalDate, BigDecimal> series = rateSeries.get(currency.getCurrencyId());
+        Map.Entry<LocalDate, BigDecimal> entry = series == null ? null : series.floorEntry(date);
+        if (entry == null) {
+            throw new IllegalStateException("Exchange rate not found for currency code: " + currency.getCurrencyCode() + " on or before " + date);
+        }
+        return entry.getValue();
+    }
+
+    @Override
+    public BigDecimal convertToTRY(BigDecimal amount, Currency currency, LocalDate date) {
+        if ("TRY".equalsIgnoreCase(currency.getCurrencyCode())) {
+            return amount;
+        }
+        return amount.multiply(getRateToTRY(currency, date));
+    }
+
+    @Override
+    public synchronized void reloadRates() {
+        Map<Integer, NavigableMap<LocalDate, BigDecimal>> loaded = new ConcurrentHashMap<>();
+        List<Object[]> rows = exchangeRateRepository.findAllRatePoints();
+        // Rows are ordered by date then id, so a later row for the same day wins, matching the old "TOP 1 ... DESC" query
+        for (Object[] row : rows) {
+            loaded.computeIfAbsent((Integer) row[0], id -> new ConcurrentSkipListMap<>())
+                    .put((LocalDate) row[1], (BigDecimal) row[2]);
+        }
+        rateSeries.keySet().retainAll(loaded.keySet());
+        rateSeries.putAll(loaded);
+        seriesLoaded = true;
+        log.info("Loaded {} exchange rates for {} currencies into memory", rows.size(), loaded.size());
+    }
+
+    private void ensureSeriesLoaded() {
+        if (!seriesLoaded) {
+            synchronized (this) {
+                if (!seriesLoaded) {
+                    reloadRates();
+                }
+            }
+        }
+    }
 }
 
@@ -0,0 +1,27 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.dto.FileBlobStatsDto;
+import com.polatholding.procurementsystem.dto.StagedBlobDto;
+import com.polatholding.procurementsystem.dto.StoredBlobDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface FileBlobService {
+
+    // Streams the content to a staging file in one pass, hashing and counting as it goes, and
+    // fsyncs it. Runs outside any transaction; fails once more than maxBytes have been read.
+    StagedBlobDto stage(InputStream content, long maxBytes) throws IOException;
+
+    // Adds one reference to the staged content's blob and moves the staging file into place if
+    // the blob is new. Must run inside the transaction that saves the File row pointing at it.
+    StoredBlobDto store(StagedBlobDto staged) throws IOException;
+
+    // Removes a staging file that was not stored (no-op once it has been)
+    void discard(StagedBlobDto staged);
+
+    // Deletes blobs without Files rows and files under the blob root that have no FileBlobs row
+    int collectGarbage();
+
+    FileBlobStatsDto getStats();
+}
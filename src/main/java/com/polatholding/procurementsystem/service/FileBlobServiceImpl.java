@@ -0,0 +1,282 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.dto.FileBlobStatsDto;
+import com.polatholding.procurementsystem.dto.StagedBlobDto;
+import com.polatholding.procurementsystem.dto.StoredBlobDto;
+import com.polatholding.procurementsystem.model.FileBlob;
+import com.polatholding.procurementsystem.repository.FileBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Stores attachment content once per SHA-256 under {@code <storage>/blobs/ab/cd/<hash>}.
+ * Uploads are staged (streamed, hashed and fsynced) before the saving transaction starts; inside
+ * it the staging file is moved into place only when no blob with that hash exists on disk yet,
+ * otherwise it is dropped.
+ */
+@Service
+public class FileBlobServiceImpl implements FileBlobService {
+
+    private static final Logger log = LoggerFactory.getLogger(FileBlobServiceImpl.class);
+
+    private static final String BLOB_DIR = "blobs";
+    private static final String STAGING_DIR = ".staging";
+    private static final int HASH_LENGTH = 64;
+    private static final int LOOKUP_CHUNK = 1000;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final FileBlobRepository fileBlobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Path blobRoot;
+    private final Path stagingDir;
+    private final Duration gcGracePeriod;
+
+    private volatile long lastGcRemovedBlobs;
+    private volatile long lastGcRemovedOrphans;
+
+    public FileBlobServiceImpl(FileBlobRepository fileBlobRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${file.storage.directory}") String storageDir,
+                               @Value("${procurement.files.blob-gc.grace-hours:24}") long gcGraceHours) {
+        this.fileBlobRepository = fileBlobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.blobRoot = Path.of(storageDir, BLOB_DIR);
+        this.stagingDir = blobRoot.resolve(STAGING_DIR);
+        this.gcGracePeriod = Duration.ofHours(gcGraceHours);
+    }
+
+    @Override
+    public StagedBlobDto stage(InputStream content, long maxBytes) throws IOException {
+        Files.createDirectories(stagingDir);
+        Path staged = stagingDir.resolve(UUID.randomUUID() + ".tmp");
+        MessageDigest digest = newDigest();
+        long size = 0;
+        boolean complete = false;
+        try (InputStream in = content;
+             FileChannel channel = FileChannel.open(staged, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                if (size > maxBytes) {
+                    throw new IllegalArgumentException("File exceeds the upload limit of " + maxBytes + " bytes");
+                }
+                digest.update(buffer, 0, read);
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+            }
+            // Durable before any transaction references it
+            channel.force(true);
+            complete = true;
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(staged);
+            }
+        }
+        return new StagedBlobDto(staged, HexFormat.of().formatHex(digest.digest()), size);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public StoredBlobDto store(StagedBlobDto staged) throws IOException {
+        String hash = staged.getBlobHash();
+        Path target = blobPath(hash);
+
+        // Take the row lock before looking at the disk: the collector deletes the file while
+        // holding the same lock, so a blob present here stays present until we commit.
+        fileBlobRepository.addReference(hash, target.toString(), staged.getSizeBytes(), LocalDateTime.now());
+        boolean newBlob = false;
+        if (Files.notExists(target)) {
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(staged.getStagedPath(), target, StandardCopyOption.ATOMIC_MOVE);
+                syncDirectory(target.getParent());
+                newBlob = true;
+            } catch (FileAlreadyExistsException e) {
+                // Another upload of the same content got there first
+            }
+        }
+        if (!newBlob) {
+            Files.deleteIfExists(staged.getStagedPath());
+        }
+        log.debug("Stored {} bytes as blob {} ({})", staged.getSizeBytes(), hash, newBlob ? "new" : "deduplicated");
+        return new StoredBlobDto(hash, target.toString(), staged.getSizeBytes(), newBlob);
+    }
+
+    // Makes the rename durable where the platform allows opening a directory (not on Windows)
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.trace("Directory sync not supported for {}: {}", directory, e.getMessage());
+        }
+    }
+
+    @Override
+    public void discard(StagedBlobDto staged) {
+        try {
+            Files.deleteIfExists(staged.getStagedPath());
+        } catch (IOException e) {
+            log.warn("Could not delete staging file {}; blob GC will remove it: {}", staged.getStagedPath(), e.getMessage());
+        }
+    }
+
+    private Path blobPath(String hash) {
+        return blobRoot.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(hash);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    @Override
+    @Scheduled(cron = "${procurement.files.blob-gc.cron:0 30 3 * * *}")
+    public int collectGarbage() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(gcGracePeriod);
+        int removedBlobs = 0;
+        for (String hash : fileBlobRepository.findUnreferencedHashes(cutoff)) {
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> deleteIfUnreferenced(hash)))) {
+                removedBlobs++;
+            }
+        }
+        int removedOrphans = deleteOrphanFiles(Instant.now().minus(gcGracePeriod));
+        lastGcRemovedBlobs = removedBlobs;
+        lastGcRemovedOrphans = removedOrphans;
+        log.info("Blob GC removed {} unreferenced blobs and {} orphan files", removedBlobs, removedOrphans);
+        return removedBlobs + removedOrphans;
+    }
+
+    private boolean deleteIfUnreferenced(String hash) {
+        FileBlob blob = fileBlobRepository.lockByHash(hash).orElse(null);
+        if (blob == null) {
+            return false;
+        }
+        long references = fileBlobRepository.countReferences(hash);
+        if (references > 0) {
+            // Referenced again since the candidate query; just correct any drift in the counter
+            if (blob.getRefCount() != references) {
+                blob.setRefCount((int) references);
+            }
+            return false;
+        }
+        fileBlobRepository.delete(blob);
+        fileBlobRepository.flush();
+        try {
+            Files.deleteIfExists(Path.of(blob.getStoragePath()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete blob " + hash, e);
+        }
+        return true;
+    }
+
+    // Files left behind by uploads whose transaction rolled back, and stale staging files
+    private int deleteOrphanFiles(Instant olderThan) {
+        if (Files.notExists(blobRoot)) {
+            return 0;
+        }
+        List<Path> candidates = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(blobRoot)) {
+            paths.filter(Files::isRegularFile)
+                    .filter(path -> isOlderThan(path, olderThan))
+                    .forEach(candidates::add);
+        } catch (IOException e) {
+            log.warn("Blob GC could not scan {}: {}", blobRoot, e.getMessage());
+            return 0;
+        }
+
+        List<String> hashes = candidates.stream()
+                .filter(path -> !path.startsWith(stagingDir))
+                .map(path -> path.getFileName().toString())
+                .filter(name -> name.length() == HASH_LENGTH)
+                .toList();
+        Set<String> known = new HashSet<>();
+        // Chunked to stay well under SQL Server's parameter limit
+        for (int i = 0; i < hashes.size(); i += LOOKUP_CHUNK) {
+            fileBlobRepository.findAllById(hashes.subList(i, Math.min(i + LOOKUP_CHUNK, hashes.size())))
+                    .forEach(blob -> known.add(blob.getBlobHash()));
+        }
+
+        int removed = 0;
+        for (Path path : candidates) {
+            String name = path.getFileName().toString();
+            if (path.startsWith(stagingDir) || name.length() != HASH_LENGTH) {
+                if (deleteQuietly(path)) removed++;
+            } else if (!known.contains(name)
+                    && Boolean.TRUE.equals(transactionTemplate.execute(status -> deleteIfStillOrphaned(name, path)))) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    // The snapshot above is unlocked: an upload of the same content may have added the row since.
+    // Re-check under the key lock store() also takes, so the file is never deleted under a new row.
+    private boolean deleteIfStillOrphaned(String hash, Path path) {
+        if (fileBlobRepository.lockByHash(hash).isPresent()) {
+            return false;
+        }
+        return deleteQuietly(path);
+    }
+
+    private static boolean deleteQuietly(Path path) {
+        try {
+            return Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Blob GC could not delete {}: {}", path, e.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean isOlderThan(Path path, Instant instant) {
+        try {
+            FileTime modified = Files.getLastModifiedTime(path);
+            return modified.toInstant().isBefore(instant);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public FileBlobStatsDto getStats() {
+        Object[] row = fileBlobRepository.getStorageSummary().get(0);
+        return new FileBlobStatsDto(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                ((Number) row[2]).longValue(), lastGcRemovedBlobs, lastGcRemovedOrphans);
+    }
+}
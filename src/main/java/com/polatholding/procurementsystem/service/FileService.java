@@ -1,13 +1,23 @@
 package com.polatholding.procurementsystem.service;
 
-import org.springframework.core.io.Resource;
+import com.polatholding.procurementsystem.dto.FileDownloadDto;
+import com.polatholding.procurementsystem.dto.StagedUploadDto;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
 
 public interface FileService {
 
-    void uploadFiles(Integer requestId, List<MultipartFile> multipartFiles, String username);
+    // Writes the uploaded parts to durable staging files before any transaction is opened.
+    // Enforces the per-file and per-request size limits; nothing is left staged on failure.
+    List<StagedUploadDto> stageUploads(List<MultipartFile> multipartFiles);
 
-    Resource loadAsResource(Integer fileId);
+    // Attaches staged uploads to the request inside the caller's transaction
+    void attachStagedFiles(Integer requestId, List<StagedUploadDto> uploads, String username);
+
+    // Drops staging files that were not attached (safe to call after a successful attach)
+    void discardStaged(List<StagedUploadDto> uploads);
+
+    // Metadata for serving a stored file; the controller streams it from disk
+    FileDownloadDto getDownload(Integer fileId);
 }
@@ -1,5 +1,9 @@
 package com.polatholding.procurementsystem.service;
 
+import com.polatholding.procurementsystem.dto.FileDownloadDto;
+import com.polatholding.procurementsystem.dto.StagedBlobDto;
+import com.polatholding.procurementsystem.dto.StagedUploadDto;
+import com.polatholding.procurementsystem.dto.StoredBlobDto;
 import com.polatholding.procurementsystem.model.File;
 import com.polatholding.procurementsystem.model.PurchaseRequest;
 import com.polatholding.procurementsystem.model.User;
@@ -7,63 +11,113 @@ import com.polatholding.procurementsystem.repository.FileRepository;
 import com.polatholding.procurementsystem.repository.PurchaseRequestRepository;
 import com.polatholding.procurementsystem.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class FileServiceImpl implements FileService {
 
+    private static final int MAX_FILE_NAME_LENGTH = 255;
+
     private final FileRepository fileRepository;
     private final PurchaseRequestRepository purchaseRequestRepository;
     private final UserRepository userRepository;
-
-    @Value("${file.storage.directory}")
-    private String storageDir;
+    private final CurrentUserService currentUserService;
+    private final FileBlobService fileBlobService;
+    private final long maxFileBytes;
+    private final long maxRequestBytes;
 
     public FileServiceImpl(FileRepository fileRepository,
                            PurchaseRequestRepository purchaseRequestRepository,
-                           UserRepository userRepository) {
+                           UserRepository userRepository,
+                           CurrentUserService currentUserService,
+                           FileBlobService fileBlobService,
+                           @Value("${procurement.files.upload.max-file-size:25MB}") DataSize maxFileSize,
+                           @Value("${procurement.files.upload.max-request-size:100MB}") DataSize maxRequestSize) {
         this.fileRepository = fileRepository;
         this.purchaseRequestRepository = purchaseRequestRepository;
         this.userRepository = userRepository;
+        this.currentUserService = currentUserService;
+        this.fileBlobService = fileBlobService;
+        this.maxFileBytes = maxFileSize.toBytes();
+        this.maxRequestBytes = maxRequestSize.toBytes();
+    }
+
+    @Override
+    public List<StagedUploadDto> stageUploads(List<MultipartFile> multipartFiles) {
+        List<StagedUploadDto> staged = new ArrayList<>();
+        if (multipartFiles == null) {
+            return staged;
+        }
+        long remaining = maxRequestBytes;
+        try {
+            for (MultipartFile multipartFile : multipartFiles) {
+                if (multipartFile.isEmpty()) continue;
+                long limit = Math.min(maxFileBytes, remaining);
+                // The declared size rejects most oversize parts up front; stage() enforces the limit on the bytes read
+                if (multipartFile.getSize() > limit) {
+                    throw tooLarge(multipartFile, limit);
+                }
+                StagedBlobDto blob;
+                try {
+                    blob = fileBlobService.stage(multipartFile.getInputStream(), limit);
+                } catch (IllegalArgumentException e) {
+                    throw tooLarge(multipartFile, limit);
+                }
+                remaining -= blob.getSizeBytes();
+                staged.add(new StagedUploadDto(originalFileName(multipartFile), multipartFile.getContentType(), blob));
+            }
+            return staged;
+        } catch (IOException ex) {
+            discardStaged(staged);
+            throw new RuntimeException("Failed to store file", ex);
+        } catch (RuntimeException ex) {
+            discardStaged(staged);
+            throw ex;
+        }
+    }
+
+    private IllegalArgumentException tooLarge(MultipartFile multipartFile, long limit) {
+        return limit < maxFileBytes
+                ? new IllegalArgumentException("Attachments exceed the per-request limit of "
+                        + DataSize.ofBytes(maxRequestBytes).toMegabytes() + " MB")
+                : new IllegalArgumentException("File " + multipartFile.getOriginalFilename()
+                        + " exceeds the limit of " + DataSize.ofBytes(maxFileBytes).toMegabytes() + " MB");
     }
 
     @Override
     @Transactional
-    public void uploadFiles(Integer requestId, List<MultipartFile> multipartFiles, String username) {
-        if (multipartFiles == null || multipartFiles.isEmpty()) {
+    public void attachStagedFiles(Integer requestId, List<StagedUploadDto> uploads, String username) {
+        if (uploads == null || uploads.isEmpty()) {
             return;
         }
 
-        PurchaseRequest request = purchaseRequestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Request not found: " + requestId));
-        User user = userRepository.findByEmail(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+        PurchaseRequest request = purchaseRequestRepository.getReferenceById(requestId);
+        // Uploader is only a foreign key; a reference avoids reading the Users row again
+        User user = userRepository.getReferenceById(currentUserService.resolve(username).getUserId());
 
-        for (MultipartFile multipartFile : multipartFiles) {
-            if (multipartFile.isEmpty()) continue;
+        for (StagedUploadDto upload : uploads) {
             try {
-                java.nio.file.Path dirPath = Path.of(storageDir, String.valueOf(requestId));
-                Files.createDirectories(dirPath);
-                String filename = System.currentTimeMillis() + "_" + multipartFile.getOriginalFilename();
-                Path target = dirPath.resolve(filename);
-                Files.copy(multipartFile.getInputStream(), target, StandardCopyOption.REPLACE_EXISTING);
+                StoredBlobDto blob = fileBlobService.store(upload.getBlob());
 
                 File file = new File();
                 file.setPurchaseRequest(request);
-                file.setFilePath(target.toString());
-                file.setFileType(multipartFile.getContentType());
+                file.setFilePath(blob.getStoragePath());
+                file.setFileName(upload.getFileName());
+                file.setBlobHash(blob.getBlobHash());
+                file.setFileType(upload.getContentType());
                 file.setUploadedByUser(user);
                 file.setUploadedAt(LocalDateTime.now());
 
@@ -74,18 +128,45 @@ public class FileServiceImpl implements FileService {
         }
     }
 
+    @Override
+    public void discardStaged(List<StagedUploadDto> uploads) {
+        if (uploads != null) {
+            uploads.forEach(upload -> fileBlobService.discard(upload.getBlob()));
+        }
+    }
+
+    private static String originalFileName(MultipartFile multipartFile) {
+        String name = StringUtils.getFilename(StringUtils.cleanPath(
+                multipartFile.getOriginalFilename() != null ? multipartFile.getOriginalFilename() : ""));
+        if (name == null || name.isBlank()) {
+            return "attachment";
+        }
+        return name.length() > MAX_FILE_NAME_LENGTH ? name.substring(name.length() - MAX_FILE_NAME_LENGTH) : name;
+    }
+
     @Override
     @Transactional(readOnly = true)
-    public Resource loadAsResource(Integer fileId) {
+    public FileDownloadDto getDownload(Integer fileId) {
         File file = fileRepository.findById(fileId)
                 .orElseThrow(() -> new RuntimeException("File not found: " + fileId));
+        Path path = Path.of(file.getFilePath());
         try {
-            Path path = Path.of(file.getFilePath());
-            Resource resource = new UrlResource(path.toUri());
-            if (resource.exists()) {
-                return resource;
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                throw new RuntimeException("File not found: " + fileId);
             }
-            throw new RuntimeException("File not found: " + fileId);
+            long size = attributes.size();
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            // Blob files are named by their hash; older files are never rewritten in place,
+            // so id + size + mtime identifies their content
+            String etag = file.getBlobHash() != null
+                    ? "\"" + file.getBlobHash() + "\""
+                    : "\"" + fileId + "-" + Long.toHexString(size) + "-" + Long.toHexString(lastModified) + "\"";
+            String filename = file.getFileName() != null ? file.getFileName() : path.getFileName().toString();
+            return new FileDownloadDto(path, filename, file.getFileType(),
+                    lastModified, etag);
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException("File not found: " + fileId, e);
         } catch (IOException e) {
             throw new RuntimeException("File not readable: " + fileId, e);
         }
@@ -0,0 +1,14 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.dto.GrossAmountStatsDto;
+
+import java.math.BigDecimal;
+
+public interface GrossAmountService {
+
+    BigDecimal calculateGrossAmount(BigDecimal netAmount);
+
+    GrossAmountStatsDto reload();
+
+    GrossAmountStatsDto getStats();
+}
@@ -0,0 +1,122 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.dto.GrossAmountStatsDto;
+import com.polatholding.procurementsystem.repository.DatabaseHelperRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Computes gross amounts in the JVM with the same rule as dbo.udf_CalculateGrossAmount
+ * (net plus VAT, rounded to the GrossAmount column scale). The rate starts from
+ * configuration and is re-derived from the UDF itself once the application is ready and on
+ * {@link #reload()}; if the UDF cannot be read the configured rate stays in use.
+ * A configurable fraction of calculations is cross-checked against the UDF.
+ */
+@Service
+public class GrossAmountServiceImpl implements GrossAmountService {
+
+    private static final Logger log = LoggerFactory.getLogger(GrossAmountServiceImpl.class);
+
+    // Matches the precision/scale of PurchaseRequests.GrossAmount
+    private static final int AMOUNT_SCALE = 2;
+    private static final int RATE_SCALE = 4;
+    private static final BigDecimal CALIBRATION_NET = new BigDecimal("1000000.00");
+
+    private final DatabaseHelperRepository dbHelper;
+    private final BigDecimal configuredVatRate;
+    private final double verifySampleRate;
+
+    private volatile BigDecimal vatRate;
+    private volatile String rateSource;
+    private volatile LocalDateTime loadedAt;
+
+    private final AtomicLong calculations = new AtomicLong();
+    private final AtomicLong verifiedSamples = new AtomicLong();
+    private final AtomicLong mismatches = new AtomicLong();
+
+    public GrossAmountServiceImpl(DatabaseHelperRepository dbHelper,
+                                  @Value("${procurement.tax.vat-rate:0.20}") BigDecimal configuredVatRate,
+                                  @Value("${procurement.tax.verify-sample-rate:0.01}") double verifySampleRate) {
+        this.dbHelper = dbHelper;
+        this.configuredVatRate = configuredVatRate;
+        this.verifySampleRate = verifySampleRate;
+        this.vatRate = configuredVatRate;
+        this.rateSource = "configuration";
+        this.loadedAt = LocalDateTime.now();
+    }
+
+    // Off the startup thread, as the database may not be reachable yet
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        Thread.ofPlatform().name("vat-rate").daemon(true).start(this::reload);
+    }
+
+    @Override
+    public BigDecimal calculateGrossAmount(BigDecimal netAmount) {
+        if (netAmount == null) {
+            return null;
+        }
+        calculations.incrementAndGet();
+        BigDecimal gross = applyRate(netAmount, vatRate);
+        if (verifySampleRate > 0 && ThreadLocalRandom.current().nextDouble() < verifySampleRate) {
+            verifyAgainstUdf(netAmount, gross);
+        }
+        return gross;
+    }
+
+    private static BigDecimal applyRate(BigDecimal netAmount, BigDecimal rate) {
+        return netAmount.add(netAmount.multiply(rate)).setScale(AMOUNT_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private void verifyAgainstUdf(BigDecimal netAmount, BigDecimal gross) {
+        try {
+            BigDecimal expected = dbHelper.calculateGrossAmount(netAmount);
+            verifiedSamples.incrementAndGet();
+            if (expected == null || expected.compareTo(gross) != 0) {
+                mismatches.incrementAndGet();
+                log.warn("Gross amount mismatch for net {}: JVM={} UDF={}", netAmount, gross, expected);
+            }
+        } catch (DataAccessException e) {
+            // Verification must never fail a save
+            log.warn("Could not verify gross amount against udf_CalculateGrossAmount: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized GrossAmountStatsDto reload() {
+        try {
+            BigDecimal udfGross = dbHelper.calculateGrossAmount(CALIBRATION_NET);
+            if (udfGross == null) {
+                throw new IllegalStateException("udf_CalculateGrossAmount returned NULL");
+            }
+            BigDecimal derivedRate = udfGross.subtract(CALIBRATION_NET)
+                    .divide(CALIBRATION_NET, RATE_SCALE, RoundingMode.HALF_UP);
+            vatRate = derivedRate;
+            rateSource = "udf_CalculateGrossAmount";
+            if (derivedRate.compareTo(configuredVatRate) != 0) {
+                log.warn("VAT rate derived from UDF ({}) differs from configured rate ({})", derivedRate, configuredVatRate);
+            }
+        } catch (DataAccessException | IllegalStateException e) {
+            log.error("Could not reload VAT rate from database, keeping {}: {}", vatRate, e.getMessage());
+        }
+        loadedAt = LocalDateTime.now();
+        return getStats();
+    }
+
+    @Override
+    public GrossAmountStatsDto getStats() {
+        return new GrossAmountStatsDto(vatRate, rateSource, loadedAt, verifySampleRate,
+                calculations.get(), verifiedSamples.get(), mismatches.get());
+    }
+}
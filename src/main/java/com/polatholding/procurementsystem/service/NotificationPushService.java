@@ -0,0 +1,17 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.dto.NotificationDto;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface NotificationPushService {
+
+    SseEmitter subscribe(Integer userId);
+
+    boolean hasSubscribers(Integer userId);
+
+    void pushNotification(Integer userId, NotificationDto notification, long unreadCount);
+
+    void pushUnreadCount(Integer userId, long unreadCount);
+
+    int getOpenConnectionCount();
+}
@@ -0,0 +1,124 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.dto.NotificationDto;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Per-user registry of open Server-Sent Events connections. SseEmitter runs on the servlet
+ * async support, so an idle connection holds no request thread; sends are handed to virtual
+ * threads so a slow client never blocks the transaction that produced the event.
+ */
+@Service
+public class NotificationPushServiceImpl implements NotificationPushService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationPushServiceImpl.class);
+
+    public static final String EVENT_NOTIFICATION = "notification";
+    public static final String EVENT_UNREAD_COUNT = "unread-count";
+
+    private final Map<Integer, List<SseEmitter>> emittersByUser = new ConcurrentHashMap<>();
+    private final ExecutorService sendExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final long emitterTimeoutMillis;
+    private final int maxConnectionsPerUser;
+
+    public NotificationPushServiceImpl(@Value("${procurement.notifications.sse.timeout-minutes:30}") long timeoutMinutes,
+                                       @Value("${procurement.notifications.sse.max-connections-per-user:10}") int maxConnectionsPerUser) {
+        this.emitterTimeoutMillis = timeoutMinutes * 60_000L;
+        this.maxConnectionsPerUser = maxConnectionsPerUser;
+    }
+
+    @Override
+    public SseEmitter subscribe(Integer userId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        List<SseEmitter> emitters = emittersByUser.computeIfAbsent(userId, id -> new CopyOnWriteArrayList<>());
+        emitters.add(emitter);
+        // Forgotten tabs should not pile up; drop the oldest connection beyond the cap
+        while (emitters.size() > maxConnectionsPerUser) {
+            SseEmitter oldest = emitters.remove(0);
+            oldest.complete();
+        }
+
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(() -> remove(userId, emitter));
+        emitter.onError(e -> remove(userId, emitter));
+        log.debug("SSE subscription opened for UserID: {} ({} open)", userId, emitters.size());
+        return emitter;
+    }
+
+    private void remove(Integer userId, SseEmitter emitter) {
+        emittersByUser.computeIfPresent(userId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    @Override
+    public boolean hasSubscribers(Integer userId) {
+        return emittersByUser.containsKey(userId);
+    }
+
+    @Override
+    public void pushNotification(Integer userId, NotificationDto notification, long unreadCount) {
+        send(userId, List.of(
+                () -> SseEmitter.event().name(EVENT_NOTIFICATION).data(notification),
+                () -> SseEmitter.event().name(EVENT_UNREAD_COUNT).data(unreadCount)));
+    }
+
+    @Override
+    public void pushUnreadCount(Integer userId, long unreadCount) {
+        send(userId, List.of(() -> SseEmitter.event().name(EVENT_UNREAD_COUNT).data(unreadCount)));
+    }
+
+    // Event builders are single-use, so each emitter gets freshly built events, in order, on one virtual thread
+    private void send(Integer userId, List<Supplier<SseEmitter.SseEventBuilder>> events) {
+        List<SseEmitter> emitters = emittersByUser.get(userId);
+        if (emitters == null) {
+            return;
+        }
+        sendExecutor.execute(() -> {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    for (Supplier<SseEmitter.SseEventBuilder> event : events) {
+                        emitter.send(event.get());
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // Client went away; the container's error/completion callback may not have fired yet
+                    remove(userId, emitter);
+                }
+            }
+        });
+    }
+
+    // Keeps proxies from closing idle connections and surfaces dead clients
+    @Scheduled(fixedDelayString = "${procurement.notifications.sse.heartbeat-ms:25000}")
+    public void sendHeartbeat() {
+        emittersByUser.keySet().forEach(userId -> send(userId, List.of(() -> SseEmitter.event().comment("heartbeat"))));
+    }
+
+    @Override
+    public int getOpenConnectionCount() {
+        return emittersByUser.values().stream().mapToInt(List::size).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        emittersByUser.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        emittersByUser.clear();
+        sendExecutor.shutdown();
+    }
+}
@@ -1,6 +1,7 @@
 package com.polatholding.procurementsystem.service;
 
 import com.polatholding.procurementsystem.dto.NotificationDto;
+import com.polatholding.procurementsystem.dto.UnreadCounterReconciliationDto;
 import com.polatholding.procurementsystem.model.PurchaseRequest;
 import com.polatholding.procurementsystem.model.User;
 
@@ -10,6 +11,9 @@ public interface NotificationService {
 
     void createNotification(User targetUser, PurchaseRequest request, String notificationType, String message, String link);
 
+    // Same notification for every recipient, written in one JDBC batch
+    void createNotifications(List<User> targetUsers, PurchaseRequest request, String notificationType, String message, String link);
+
     List<NotificationDto> getRecentNotificationsForUser(Integer userId, int limit);
 
     List<NotificationDto> getAllNotificationsForUser(Integer userId);
@@ -20,6 +24,8 @@ public interface NotificationService {
 
     void markAllNotificationsAsRead(Integer userId);
 
+    UnreadCounterReconciliationDto reconcileUnreadCounters(boolean repair);
+
     // Helper methods for generating notifications (can be private in impl or exposed if needed elsewhere)
     void notifyRequestSubmission(PurchaseRequest request);
     void notifyApprovalStep(PurchaseRequest request, User approver, String previousStatus);
@@ -1,22 +1,31 @@
 package com.polatholding.procurementsystem.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.polatholding.procurementsystem.dto.NotificationDto;
+import com.polatholding.procurementsystem.dto.UnreadCounterReconciliationDto;
 import com.polatholding.procurementsystem.model.*;
 import com.polatholding.procurementsystem.repository.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
@@ -26,7 +35,13 @@ public class NotificationServiceImpl implements NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
-    private final ApprovalStepRepository approvalStepRepository; // To get role for next approver
+    private final ApprovalWorkflowService approvalWorkflowService;
+    private final ApproverDirectoryService approverDirectoryService;
+    private final NotificationPushService notificationPushService;
+    private final DatabaseHelperRepository dbHelper;
+
+    // UserID -> unread count. Bounded and access-expiring; a miss rebuilds from the database.
+    private final Cache<Integer, AtomicLong> unreadCounters;
 
 
     // Notification Types Constants
@@ -36,13 +51,27 @@ public class NotificationServiceImpl implements NotificationService {
     public static final String TYPE_REQUEST_REJECTED = "REQUEST_REJECTED";
     public static final String TYPE_REQUEST_RETURNED = "REQUEST_RETURNED";
 
+    private static final int RECONCILE_CHUNK_SIZE = 1000;
+
 
     public NotificationServiceImpl(NotificationRepository notificationRepository,
                                    UserRepository userRepository,
-                                   ApprovalStepRepository approvalStepRepository) {
+                                   ApprovalWorkflowService approvalWorkflowService,
+                                   ApproverDirectoryService approverDirectoryService,
+                                   NotificationPushService notificationPushService,
+                                   DatabaseHelperRepository dbHelper,
+                                   @Value("${procurement.notifications.unread-counter.max-users:20000}") long maxUsers,
+                                   @Value("${procurement.notifications.unread-counter.expire-minutes:30}") long expireMinutes) {
         this.notificationRepository = notificationRepository;
         this.userRepository = userRepository;
-        this.approvalStepRepository = approvalStepRepository;
+        this.approvalWorkflowService = approvalWorkflowService;
+        this.approverDirectoryService = approverDirectoryService;
+        this.notificationPushService = notificationPushService;
+        this.dbHelper = dbHelper;
+        this.unreadCounters = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterAccess(Duration.ofMinutes(expireMinutes))
+                .build();
     }
 
     @Override
@@ -52,18 +81,73 @@ public class NotificationServiceImpl implements NotificationService {
             log.warn("Target user is null for notification. Type: {}, RequestID: {}", notificationType, request != null ? request.getRequestId() : "N/A");
             return;
         }
-        Notification notification = new Notification();
-        notification.setUser(targetUser);
-        notification.setPurchaseRequest(request); // Can be null for system-wide notifications if schema allowed
-        notification.setNotificationType(notificationType);
-        notification.setMessage(message);
-        notification.setLink(link);
-        notification.setSentDate(LocalDateTime.now());
-        notification.setRead(false);
-        notification.setSuccess(true); // Assuming creation means success of sending intent
+        createNotifications(List.of(targetUser), request, notificationType, message, link);
+    }
+
+    @Override
+    @Transactional
+    public void createNotifications(List<User> targetUsers, PurchaseRequest request, String notificationType, String message, String link) {
+        LocalDateTime sentDate = LocalDateTime.now();
+        List<Notification> notifications = new ArrayList<>(targetUsers.size());
+        for (User targetUser : targetUsers) {
+            if (targetUser == null) continue;
+            Notification notification = new Notification();
+            notification.setUser(targetUser);
+            notification.setPurchaseRequest(request); // Can be null for system-wide notifications if schema allowed
+            notification.setNotificationType(notificationType);
+            notification.setMessage(message);
+            notification.setLink(link);
+            notification.setSentDate(sentDate);
+            notification.setRead(false);
+            notification.setSuccess(true); // Assuming creation means success of sending intent
+            notifications.add(notification);
+        }
+        if (notifications.isEmpty()) {
+            return;
+        }
 
-        notificationRepository.save(notification);
-        log.info("Notification created for UserID: {}, Type: {}, RequestID: {}", targetUser.getUserId(), notificationType, request != null ? request.getRequestId() : "N/A");
+        dbHelper.insertNotifications(notifications);
+        log.info("{} notification(s) created, Type: {}, RequestID: {}", notifications.size(), notificationType, request != null ? request.getRequestId() : "N/A");
+
+        // Batch inserts do not return keys; the pushed DTO only tells open tabs to refresh
+        NotificationDto dto = convertToDto(notifications.get(0));
+        List<Integer> userIds = notifications.stream().map(n -> n.getUser().getUserId()).collect(Collectors.toList());
+        runAfterCommit(() -> {
+            for (Integer userId : userIds) {
+                adjustUnreadCounter(userId, 1);
+                if (notificationPushService.hasSubscribers(userId)) {
+                    notificationPushService.pushNotification(userId, dto, getUnreadNotificationCountForUser(userId));
+                }
+            }
+        });
+    }
+
+    // Only counters already in memory are adjusted; an absent one is rebuilt from committed rows on next read
+    private void adjustUnreadCounter(Integer userId, long delta) {
+        unreadCounters.asMap().computeIfPresent(userId, (id, counter) -> {
+            counter.updateAndGet(value -> Math.max(0, value + delta));
+            return counter;
+        });
+    }
+
+    // Open SSE connections only hear about rows that actually committed
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void pushUnreadCountAfterCommit(Integer userId) {
+        if (notificationPushService.hasSubscribers(userId)) {
+            runAfterCommit(() -> notificationPushService.pushUnreadCount(userId, getUnreadNotificationCountForUser(userId)));
+        }
     }
 
     @Override
@@ -77,15 +161,19 @@ public class NotificationServiceImpl implements NotificationService {
     @Override
     @Transactional(readOnly = true)
     public long getUnreadNotificationCountForUser(Integer userId) {
-        return notificationRepository.countByUserUserIdAndIsReadFalse(userId);
+        return unreadCounters.get(userId, id -> new AtomicLong(notificationRepository.countByUserUserIdAndIsReadFalse(id))).get();
     }
 
     @Override
     @Transactional
     public void markNotificationAsRead(Integer notificationId, Integer userId) {
         // Direct update using native SQL query to ensure IsRead is set to 1 in the database
-        notificationRepository.markAsReadNative(notificationId, userId);
+        int updated = notificationRepository.markAsReadNative(notificationId, userId);
         log.info("NotificationID: {} marked as read for UserID: {} using native query", notificationId, userId);
+        if (updated > 0) {
+            runAfterCommit(() -> adjustUnreadCounter(userId, -updated));
+            pushUnreadCountAfterCommit(userId); // keeps the user's other tabs in sync
+        }
     }
 
     @Override
@@ -93,6 +181,47 @@ public class NotificationServiceImpl implements NotificationService {
     public void markAllNotificationsAsRead(Integer userId) {
         notificationRepository.markAllAsReadForUser(userId);
         log.info("All unread notifications marked as read for UserID: {}", userId);
+        runAfterCommit(() -> unreadCounters.asMap().computeIfPresent(userId, (id, counter) -> {
+            counter.set(0);
+            return counter;
+        }));
+        pushUnreadCountAfterCommit(userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UnreadCounterReconciliationDto reconcileUnreadCounters(boolean repair) {
+        UnreadCounterReconciliationDto result = new UnreadCounterReconciliationDto();
+        List<Integer> userIds = new ArrayList<>(unreadCounters.asMap().keySet());
+        Map<Integer, Long> databaseCounts = new HashMap<>();
+        for (int i = 0; i < userIds.size(); i += RECONCILE_CHUNK_SIZE) {
+            for (Object[] row : notificationRepository.countUnreadByUserIds(userIds.subList(i, Math.min(i + RECONCILE_CHUNK_SIZE, userIds.size())))) {
+                databaseCounts.put((Integer) row[0], (Long) row[1]);
+            }
+        }
+        for (Integer userId : userIds) {
+            AtomicLong counter = unreadCounters.getIfPresent(userId);
+            if (counter == null) continue; // evicted meanwhile
+            long cached = counter.get();
+            long actual = databaseCounts.getOrDefault(userId, 0L);
+            result.setCountersChecked(result.getCountersChecked() + 1);
+            if (cached != actual) {
+                UnreadCounterReconciliationDto.Drift drift = new UnreadCounterReconciliationDto.Drift();
+                drift.setUserId(userId);
+                drift.setCachedCount(cached);
+                drift.setDatabaseCount(actual);
+                result.getDrifts().add(drift);
+                if (repair) {
+                    unreadCounters.invalidate(userId);
+                }
+            }
+        }
+        result.setMismatches(result.getDrifts().size());
+        result.setRepaired(repair);
+        if (result.getMismatches() > 0) {
+            log.warn("Unread counter reconciliation found {} mismatches out of {} counters", result.getMismatches(), result.getCountersChecked());
+        }
+        return result;
     }
 
     @Override
@@ -141,22 +270,23 @@ public class NotificationServiceImpl implements NotificationService {
     @Override
     @Transactional
     public void notifyRequestSubmission(PurchaseRequest request) {
-        String message;
         String link = "/requests/" + request.getRequestId();
         List<User> targetApprovers = getNextApprovers(request);
+        List<User> recipients = new ArrayList<>();
 
         for (User approver : targetApprovers) {
             // Avoid notifying self if user is also the first approver (e.g., a Manager submitting for themselves going to Proc.Man)
             if (approver.getUserId().equals(request.getCreatedByUser().getUserId()) && request.getCurrentApprovalLevel() == 1) { // Only skip if it's the very first level self-approval
-                boolean isOnlyApproverAtLevel1 = request.getDepartment().getManagerUser() != null && request.getDepartment().getManagerUser().getUserId().equals(approver.getUserId());
+                boolean isOnlyApproverAtLevel1 = approver.getUserId().equals(request.getDepartment().getManagerUserId());
                 if(isOnlyApproverAtLevel1 && targetApprovers.size() == 1) { // If they are the dept manager and no other manager, it must go to level 2
                     log.info("Skipping self-notification for UserID {} on RequestID {} as they are the first approver (Dept. Manager). Request goes to next level.", approver.getUserId(), request.getRequestId());
                     continue;
                 }
             }
-            message = "Request #" + request.getRequestId() + " from " + request.getCreatedByUser().getFirstName() + " is awaiting your approval.";
-            createNotification(approver, request, TYPE_APPROVAL_REQUIRED, message, link);
+            recipients.add(approver);
         }
+        String message = "Request #" + request.getRequestId() + " from " + request.getCreatedByUser().getFirstName() + " is awaiting your approval.";
+        createNotifications(recipients, request, TYPE_APPROVAL_REQUIRED, message, link);
     }
 
 
@@ -169,22 +299,24 @@ public class NotificationServiceImpl implements NotificationService {
         String link = "/requests/" + request.getRequestId();
 
         List<User> nextApprovers = getNextApprovers(request);
-        if (!nextApprovers.isEmpty()) {
-            String nextApproverRoleName = nextApprovers.get(0).getRoles().iterator().next().getRoleName(); // Simplified
-            creatorMessage += " Now pending " + nextApproverRoleName + " approval.";
+        ApprovalWorkflow.Step nextStep = approvalWorkflowService.current().getStep(request.getCurrentApprovalLevel());
+        if (!nextApprovers.isEmpty() && nextStep != null) {
+            creatorMessage += " Now pending " + nextStep.getLabel() + " approval.";
         }
         createNotification(request.getCreatedByUser(), request, TYPE_REQUEST_UPDATE, creatorMessage, link);
 
         // Notify next approvers
         if (!"Approved".equalsIgnoreCase(request.getStatus())) { // Only notify next if not fully approved yet
             String approverMessage = "Request #" + request.getRequestId() + " (approved by " + approver.getFirstName() + ") requires your approval.";
+            List<User> recipients = new ArrayList<>();
             for (User nextApprover : nextApprovers) {
                 if (nextApprover.getUserId().equals(request.getCreatedByUser().getUserId())) {
                     log.info("Skipping self-notification for next step for UserID {} on RequestID {}.", nextApprover.getUserId(), request.getRequestId());
                     continue;
                 }
-                createNotification(nextApprover, request, TYPE_APPROVAL_REQUIRED, approverMessage, link);
+                recipients.add(nextApprover);
             }
+            createNotifications(recipients, request, TYPE_APPROVAL_REQUIRED, approverMessage, link);
         }
     }
 
@@ -212,26 +344,17 @@ public class NotificationServiceImpl implements NotificationService {
         createNotification(request.getCreatedByUser(), request, TYPE_REQUEST_RETURNED, message, link);
     }
 
+    // References only: notifications are written by id, so the approvers are never loaded
     private List<User> getNextApprovers(PurchaseRequest request) {
-        List<User> approvers = new ArrayList<>();
-        if ("Pending".equalsIgnoreCase(request.getStatus())) {
-            int nextLevel = request.getCurrentApprovalLevel();
-            ApprovalStep approvalStep = approvalStepRepository.findByStepOrder(nextLevel).orElse(null);
-
-            if (approvalStep != null) {
-                Role requiredRole = approvalStep.getRequiredRole();
-                if (AdminServiceImpl.MANAGER_ROLE_NAME.equals(requiredRole.getRoleName()) && request.getDepartment().getManagerUser() != null) {
-                    approvers.add(request.getDepartment().getManagerUser());
-                } else {
-                    // For ProcurementManager, Director, etc.
-                    List<User> usersInRole = userRepository.findByRolesContaining(requiredRole);
-                    approvers.addAll(usersInRole);
-                }
-            } else {
-                log.warn("No approval step found for order {} for requestID {}", nextLevel, request.getRequestId());
-            }
+        if (!"Pending".equalsIgnoreCase(request.getStatus())) {
+            return List.of();
+        }
+        Integer departmentManagerId = request.getDepartment() != null ? request.getDepartment().getManagerUserId() : null;
+        List<Integer> approverIds = approverDirectoryService.getApproverIds(request.getCurrentApprovalLevel(), departmentManagerId);
+        if (approverIds.isEmpty()) {
+            log.warn("No active approvers for level {} of RequestID {}", request.getCurrentApprovalLevel(), request.getRequestId());
         }
-        return approvers.stream().distinct().collect(Collectors.toList()); // Ensure distinct users
+        return approverIds.stream().map(userRepository::getReferenceById).collect(Collectors.toList());
     }
 }
 
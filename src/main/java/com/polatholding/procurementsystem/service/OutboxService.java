@@ -0,0 +1,24 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.dto.OutboxStatsDto;
+import com.polatholding.procurementsystem.model.PurchaseRequest;
+
+public interface OutboxService {
+
+    String NOTIFY_APPROVAL_STEP = "APPROVAL_STEP";
+    String NOTIFY_FINAL_APPROVAL = "FINAL_APPROVAL";
+    String NOTIFY_REJECTION = "REJECTION";
+    String NOTIFY_RETURN_FOR_EDIT = "RETURN_FOR_EDIT";
+
+    // Both enqueue methods must run inside the caller's transaction; the event commits or rolls back with it
+    void enqueueHistory(int requestId, Integer userId, String action, String details);
+
+    void enqueueNotification(String kind, PurchaseRequest request, Integer actorUserId, String previousStatus);
+
+    int dispatchPending();
+
+    // Deletes events delivered more than the retention period ago; returns how many
+    int purgeProcessed();
+
+    OutboxStatsDto getStats();
+}
@@ -0,0 +1,336 @@
+package com.polatholding.procurementsystem.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.polatholding.procurementsystem.dto.OutboxNotificationPayloadDto;
+import com.polatholding.procurementsystem.dto.OutboxStatsDto;
+import com.polatholding.procurementsystem.dto.RequestHistoryEntryDto;
+import com.polatholding.procurementsystem.model.OutboxEvent;
+import com.polatholding.procurementsystem.model.PurchaseRequest;
+import com.polatholding.procurementsystem.model.User;
+import com.polatholding.procurementsystem.repository.DatabaseHelperRepository;
+import com.polatholding.procurementsystem.repository.OutboxEventRepository;
+import com.polatholding.procurementsystem.repository.PurchaseRequestRepository;
+import com.polatholding.procurementsystem.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Transactional outbox for approval side effects. Decisions only insert an OutboxEvents row;
+ * a single dispatcher thread later claims pending rows in batches and writes the Notification
+ * and RequestHistory rows in the same transaction that marks the events processed. A crash
+ * before that commit leaves the events pending, so delivery is at-least-once, and because
+ * claiming, applying and marking commit together a committed event is never applied twice.
+ */
+@Service
+public class OutboxServiceImpl implements OutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxServiceImpl.class);
+
+    public static final String EVENT_HISTORY = "RequestHistory";
+    public static final String EVENT_NOTIFICATION = "Notification";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final PurchaseRequestRepository purchaseRequestRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final DatabaseHelperRepository dbHelper;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retention;
+    private final int purgeBatchSize;
+
+    // One dispatcher at a time plus one queued wake-up; further wake-ups are covered by the queued one
+    private final ThreadPoolExecutor dispatchExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1),
+            Thread.ofPlatform().name("outbox-dispatcher-", 0).daemon(true).factory(),
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    private final AtomicLong dispatchedTotal = new AtomicLong();
+    private final AtomicLong failedAttemptsTotal = new AtomicLong();
+    private final AtomicLong lastBatchSize = new AtomicLong();
+    private final AtomicLong lastBatchMaxLagMillis = new AtomicLong();
+    private final AtomicReference<LocalDateTime> lastDispatchAt = new AtomicReference<>();
+
+    public OutboxServiceImpl(OutboxEventRepository outboxEventRepository,
+                             PurchaseRequestRepository purchaseRequestRepository,
+                             UserRepository userRepository,
+                             NotificationService notificationService,
+                             DatabaseHelperRepository dbHelper,
+                             ObjectMapper objectMapper,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${procurement.outbox.batch-size:100}") int batchSize,
+                             @Value("${procurement.outbox.max-attempts:5}") int maxAttempts,
+                             @Value("${procurement.outbox.retention-days:7}") int retentionDays,
+                             @Value("${procurement.outbox.purge-batch-size:5000}") int purgeBatchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.purchaseRequestRepository = purchaseRequestRepository;
+        this.userRepository = userRepository;
+        this.notificationService = notificationService;
+        this.dbHelper = dbHelper;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retention = Duration.ofDays(retentionDays);
+        this.purgeBatchSize = purgeBatchSize;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueHistory(int requestId, Integer userId, String action, String details) {
+        enqueue(EVENT_HISTORY, new RequestHistoryEntryDto(requestId, userId, action, details, LocalDateTime.now()));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueNotification(String kind, PurchaseRequest request, Integer actorUserId, String previousStatus) {
+        OutboxNotificationPayloadDto payload = new OutboxNotificationPayloadDto();
+        payload.setKind(kind);
+        payload.setRequestId(request.getRequestId());
+        payload.setActorUserId(actorUserId);
+        payload.setStatus(request.getStatus());
+        payload.setCurrentApprovalLevel(request.getCurrentApprovalLevel());
+        payload.setRejectReason(request.getRejectReason());
+        payload.setPreviousStatus(previousStatus);
+        enqueue(EVENT_NOTIFICATION, payload);
+    }
+
+    private void enqueue(String eventType, Object payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(eventType);
+        event.setPayload(writePayload(payload));
+        event.setCreatedAt(LocalDateTime.now());
+        event.setAttempts(0);
+        outboxEventRepository.save(event);
+
+        // Wake the dispatcher as soon as the decision commits instead of waiting for the next poll
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                requestDispatch();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${procurement.outbox.poll-ms:5000}")
+    public void poll() {
+        requestDispatch();
+    }
+
+    private void requestDispatch() {
+        if (!dispatchExecutor.isShutdown()) {
+            dispatchExecutor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            int dispatched;
+            do {
+                dispatched = dispatchPending(); // a full batch usually means more is waiting
+            } while (dispatched >= batchSize);
+        } catch (Exception e) {
+            log.warn("Outbox dispatch failed, will retry on next poll: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int dispatchPending() {
+        try {
+            Integer dispatched = transactionTemplate.execute(status -> {
+                List<OutboxEvent> events = outboxEventRepository.claimPendingBatch(batchSize, maxAttempts);
+                if (!events.isEmpty()) {
+                    apply(events);
+                }
+                return events.size();
+            });
+            return dispatched == null ? 0 : dispatched;
+        } catch (RuntimeException e) {
+            // One bad event must not hold back the batch; retry each event on its own to isolate it
+            log.warn("Outbox batch failed ({}), dispatching events individually", e.getMessage());
+            return dispatchIndividually();
+        }
+    }
+
+    private int dispatchIndividually() {
+        List<Long> ids = transactionTemplate.execute(status ->
+                outboxEventRepository.claimPendingBatch(batchSize, maxAttempts).stream()
+                        .map(OutboxEvent::getOutboxEventId)
+                        .toList());
+        int dispatched = 0;
+        for (Long id : ids == null ? List.<Long>of() : ids) {
+            try {
+                Boolean applied = transactionTemplate.execute(status -> outboxEventRepository.claimPendingById(id)
+                        .map(event -> {
+                            apply(List.of(event));
+                            return true;
+                        })
+                        .orElse(false));
+                if (Boolean.TRUE.equals(applied)) dispatched++;
+            } catch (RuntimeException e) {
+                recordFailure(id, e);
+            }
+        }
+        return dispatched;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${procurement.outbox.purge-ms:3600000}",
+            initialDelayString = "${procurement.outbox.purge-ms:3600000}")
+    public int purgeProcessed() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int purged = 0;
+        int deleted;
+        do {
+            // One transaction per chunk keeps each lock short
+            Integer chunk = transactionTemplate.execute(status -> outboxEventRepository.deleteProcessedBefore(cutoff, purgeBatchSize));
+            deleted = chunk == null ? 0 : chunk;
+            purged += deleted;
+        } while (deleted >= purgeBatchSize);
+        if (purged > 0) {
+            log.info("Purged {} outbox events delivered before {}", purged, cutoff);
+        }
+        return purged;
+    }
+
+    private void recordFailure(Long id, RuntimeException cause) {
+        failedAttemptsTotal.incrementAndGet();
+        String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName();
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.findById(id).ifPresent(event -> {
+            event.setAttempts(event.getAttempts() + 1);
+            event.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+            if (event.getAttempts() >= maxAttempts) {
+                log.error("Outbox event {} ({}) gave up after {} attempts: {}", id, event.getEventType(), event.getAttempts(), message);
+            }
+        }));
+    }
+
+    // Runs inside the dispatching transaction; the history rows go out as one JDBC batch
+    private void apply(List<OutboxEvent> events) {
+        List<RequestHistoryEntryDto> history = new ArrayList<>();
+        Map<Integer, PurchaseRequest> requests = new HashMap<>();
+        Map<Integer, User> users = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        long maxLagMillis = 0;
+
+        for (OutboxEvent event : events) {
+            switch (event.getEventType()) {
+                case EVENT_HISTORY -> history.add(readPayload(event, RequestHistoryEntryDto.class));
+                case EVENT_NOTIFICATION -> deliverNotification(readPayload(event, OutboxNotificationPayloadDto.class), requests, users);
+                default -> throw new IllegalStateException("Unknown outbox event type: " + event.getEventType());
+            }
+            event.setProcessedAt(now);
+            maxLagMillis = Math.max(maxLagMillis, Duration.between(event.getCreatedAt(), now).toMillis());
+        }
+        if (!history.isEmpty()) {
+            dbHelper.insertRequestHistory(history);
+        }
+
+        long lag = maxLagMillis;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatchedTotal.addAndGet(events.size());
+                lastBatchSize.set(events.size());
+                lastBatchMaxLagMillis.set(lag);
+                lastDispatchAt.set(now);
+            }
+        });
+        log.debug("Outbox dispatched {} event(s), max lag {} ms", events.size(), lag);
+    }
+
+    private void deliverNotification(OutboxNotificationPayloadDto payload,
+                                     Map<Integer, PurchaseRequest> requests, Map<Integer, User> users) {
+        PurchaseRequest current = requests.computeIfAbsent(payload.getRequestId(),
+                id -> purchaseRequestRepository.findByIdWithAllDetails(id).orElse(null));
+        User actor = users.computeIfAbsent(payload.getActorUserId(), id -> userRepository.findById(id).orElse(null));
+        if (current == null || actor == null) {
+            log.warn("Skipping {} notification for RequestID {}: request or actor no longer exists", payload.getKind(), payload.getRequestId());
+            return;
+        }
+
+        // Messages and recipients follow the state at decision time, not whatever the request looks like now
+        PurchaseRequest snapshot = new PurchaseRequest();
+        snapshot.setRequestId(current.getRequestId());
+        snapshot.setCreatedByUser(current.getCreatedByUser());
+        snapshot.setDepartment(current.getDepartment());
+        snapshot.setStatus(payload.getStatus());
+        snapshot.setCurrentApprovalLevel(payload.getCurrentApprovalLevel());
+        snapshot.setRejectReason(payload.getRejectReason());
+
+        switch (payload.getKind()) {
+            case NOTIFY_APPROVAL_STEP -> notificationService.notifyApprovalStep(snapshot, actor, payload.getPreviousStatus());
+            case NOTIFY_FINAL_APPROVAL -> notificationService.notifyFinalApproval(snapshot, actor);
+            case NOTIFY_REJECTION -> notificationService.notifyRejection(snapshot, actor);
+            case NOTIFY_RETURN_FOR_EDIT -> notificationService.notifyReturnForEdit(snapshot, actor);
+            default -> throw new IllegalStateException("Unknown notification kind: " + payload.getKind());
+        }
+    }
+
+    private String writePayload(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox payload", e);
+        }
+    }
+
+    private <T> T readPayload(OutboxEvent event, Class<T> type) {
+        try {
+            return objectMapper.readValue(event.getPayload(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable payload in outbox event " + event.getOutboxEventId(), e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OutboxStatsDto getStats() {
+        OutboxStatsDto stats = new OutboxStatsDto();
+        List<Object[]> pending = outboxEventRepository.getPendingSummary(maxAttempts);
+        if (!pending.isEmpty()) {
+            Object[] row = pending.get(0);
+            stats.setPendingCount(((Number) row[0]).longValue());
+            LocalDateTime oldest = (LocalDateTime) row[1];
+            stats.setOldestPendingCreatedAt(oldest);
+            stats.setOldestPendingAgeMillis(oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis());
+        }
+        stats.setDeadCount(outboxEventRepository.countDead(maxAttempts));
+        stats.setDispatchedTotal(dispatchedTotal.get());
+        stats.setFailedAttemptsTotal(failedAttemptsTotal.get());
+        stats.setLastDispatchAt(lastDispatchAt.get());
+        stats.setLastBatchSize(lastBatchSize.get());
+        stats.setLastBatchMaxLagMillis(lastBatchMaxLagMillis.get());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatchExecutor.shutdownNow();
+    }
+}
@@ -4,25 +4,33 @@ import com.polatholding.procurementsystem.dto.NewRequestFormInitDto;
 import com.polatholding.procurementsystem.dto.PurchaseRequestDetailDto;
 import com.polatholding.procurementsystem.dto.PurchaseRequestDto;
 import com.polatholding.procurementsystem.dto.PurchaseRequestFormDto;
+import com.polatholding.procurementsystem.dto.RequestListFilterDto;
+import com.polatholding.procurementsystem.dto.RequestListFilterOptionsDto;
+import com.polatholding.procurementsystem.dto.RequestPageDto;
+import com.polatholding.procurementsystem.dto.StagedUploadDto;
 
 import java.util.List;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.data.domain.Page;
 
 public interface PurchaseRequestService {
 
-    List<PurchaseRequestDto> getRequestsForUser(String userEmail);
+    RequestPageDto getRequestPageForUser(String userEmail, RequestListFilterDto filter);
+
+    RequestListFilterOptionsDto getRequestListFilterOptions();
 
     NewRequestFormInitDto getNewRequestFormData(String userEmail);
 
-    Integer saveNewRequest(PurchaseRequestFormDto formDto, String userEmail, List<MultipartFile> files);
+    Integer saveNewRequest(PurchaseRequestFormDto formDto, String userEmail, List<StagedUploadDto> files);
 
     PurchaseRequestFormDto getRequestFormById(Integer requestId);
 
-    void updateRequest(Integer requestId, PurchaseRequestFormDto formDto, String userEmail, List<MultipartFile> files);
+    void updateRequest(Integer requestId, PurchaseRequestFormDto formDto, String userEmail, List<StagedUploadDto> files);
 
     String getUserFullName(String userEmail);
 
-    List<PurchaseRequestDto> getPendingApprovalsForUser(String userEmail);
+    Page<PurchaseRequestDto> getPendingApprovalsForUser(String userEmail, int page, int size);
+
+    long countPendingApprovalsForUser(String userEmail);
 
     List<PurchaseRequestDto> getAllRequests();
 
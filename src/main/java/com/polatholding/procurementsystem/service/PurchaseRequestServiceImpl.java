@@ -1,10 +1,12 @@
 package com.polatholding.procurementsystem.service;
 
 import com.polatholding.procurementsystem.dto.*;
-import com.polatholding.procurementsystem.exception.InsufficientBudgetException;
 import com.polatholding.procurementsystem.model.*;
 import com.polatholding.procurementsystem.repository.*;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -13,12 +15,17 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 public class PurchaseRequestServiceImpl implements PurchaseRequestService {
@@ -31,17 +38,28 @@ public class PurchaseRequestServiceImpl implements PurchaseRequestService {
     private final CurrencyRepository currencyRepository;
     private final SupplierRepository supplierRepository;
     private final UnitRepository unitRepository;
-    private final ExchangeRateRepository exchangeRateRepository;
+    private final ExchangeRateService exchangeRateService;
     private final RequestHistoryService requestHistoryService;
     private final FileService fileService;
     private final com.polatholding.procurementsystem.repository.DatabaseHelperRepository dbHelper;
     private final NotificationService notificationService; // Added
+    private final ReferenceDataService referenceDataService;
+    private final GrossAmountService grossAmountService;
+    private final DepartmentRepository departmentRepository;
+    private final CurrentUserService currentUserService;
+    private final BudgetService budgetService;
+    private final BudgetReservationService budgetReservationService;
+    private final ApprovalWorkflowService approvalWorkflowService;
 
     private static final String DIRECTOR_ROLE_NAME = "Director";
     private static final String PROCUREMENT_MANAGER_ROLE_NAME = "ProcurementManager";
     private static final String MANAGER_ROLE_NAME = "Manager";
     private static final String FINANCE_OFFICER_ROLE_NAME = "Finance Officer";
-    private static final BigDecimal HIGH_VALUE_THRESHOLD = new BigDecimal("1000000");
+    private static final int DEFAULT_PAGE_SIZE = 25;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int SEARCH_ID_CHUNK_SIZE = 1000;
+    private static final int NO_MATCH_ID = -1; // keeps IN lists non-empty when a branch does not apply
+    private static final List<String> REQUEST_STATUSES = List.of("Pending", "Approved", "Rejected", "Returned for Edit");
 
 
     public PurchaseRequestServiceImpl(PurchaseRequestRepository purchaseRequestRepository,
@@ -50,33 +68,54 @@ public class PurchaseRequestServiceImpl implements PurchaseRequestService {
                                       CurrencyRepository currencyRepository,
                                       SupplierRepository supplierRepository,
                                       UnitRepository unitRepository,
-                                      ExchangeRateRepository exchangeRateRepository,
+                                      ExchangeRateService exchangeRateService,
                                       RequestHistoryService requestHistoryService,
                                       FileService fileService,
                                       com.polatholding.procurementsystem.repository.DatabaseHelperRepository dbHelper,
-                                      NotificationService notificationService) { // Added notificationService
+                                      NotificationService notificationService, // Added notificationService
+                                      ReferenceDataService referenceDataService,
+                                      GrossAmountService grossAmountService,
+                                      DepartmentRepository departmentRepository,
+                                      CurrentUserService currentUserService,
+                                      BudgetService budgetService,
+                                      BudgetReservationService budgetReservationService,
+                                      ApprovalWorkflowService approvalWorkflowService) {
         this.purchaseRequestRepository = purchaseRequestRepository;
         this.userRepository = userRepository;
         this.budgetCodeRepository = budgetCodeRepository;
         this.currencyRepository = currencyRepository;
         this.supplierRepository = supplierRepository;
         this.unitRepository = unitRepository;
-        this.exchangeRateRepository = exchangeRateRepository;
+        this.exchangeRateService = exchangeRateService;
         this.requestHistoryService = requestHistoryService;
         this.fileService = fileService;
         this.dbHelper = dbHelper;
         this.notificationService = notificationService; // Added assignment
+        this.referenceDataService = referenceDataService;
+        this.grossAmountService = grossAmountService;
+        this.departmentRepository = departmentRepository;
+        this.currentUserService = currentUserService;
+        this.budgetService = budgetService;
+        this.budgetReservationService = budgetReservationService;
+        this.approvalWorkflowService = approvalWorkflowService;
     }
 
     @Override
     @Transactional(readOnly = true)
     public NewRequestFormInitDto getNewRequestFormData(String userEmail) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userEmail));
+        CurrentUserDto user = currentUserService.resolve(userEmail);
         NewRequestFormInitDto initDto = new NewRequestFormInitDto();
 
-        List<BudgetCode> filteredBudgetCodes = budgetCodeRepository.findByDepartmentAndIsActiveTrue(user.getDepartment());
+        List<BudgetCode> filteredBudgetCodes = budgetCodeRepository.findByDepartmentAndIsActiveTrue(departmentReference(user));
         initDto.setBudgetCodes(filteredBudgetCodes);
+        // Remaining balance minus what pending requests hold; the reserved totals come from memory
+        Map<Integer, BigDecimal> reserved = budgetReservationService.getReservedTotals(
+                filteredBudgetCodes.stream().map(BudgetCode::getBudgetCodeId).toList());
+        Map<Integer, BigDecimal> available = new HashMap<>();
+        for (BudgetCode budgetCode : filteredBudgetCodes) {
+            available.put(budgetCode.getBudgetCodeId(), budgetCode.getBudgetAmount().subtract(reserved.get(budgetCode.getBudgetCodeId())));
+        }
+        initDto.setAvailableBudgets(available);
         initDto.setCurrencies(currencyRepository.findAll());
         initDto.setSuppliers(supplierRepository.findByStatusOrderBySupplierNameAsc("Active"));
         initDto.setUnits(unitRepository.findAll());
@@ -117,12 +156,11 @@ public class PurchaseRequestServiceImpl implements PurchaseRequestService {
 
     @Override
     @Transactional
-    public void updateRequest(Integer requestId, PurchaseRequestFormDto formDto, String userEmail, List<MultipartFile> files) {
+    public void updateRequest(Integer requestId, PurchaseRequestFormDto formDto, String userEmail, List<StagedUploadDto> files) {
         PurchaseRequest requestToUpdate = purchaseRequestRepository.findByIdWithAllDetails(requestId)
                 .orElseThrow(() -> new RuntimeException("Request not found: " + requestId));
 
-        User currentUser = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userEmail));
+        CurrentUserDto currentUser = currentUserService.resolve(userEmail);
 
         if (!requestToUpdate.getCreatedByUser().getUserId().equals(currentUser.getUserId())) {
             throw new AccessDeniedException("You are not authorized to update this request.");
@@ -131,13 +169,11 @@ public class PurchaseRequestServiceImpl implements PurchaseRequestService {
             throw new IllegalStateException("This request cannot be edited as it is not in 'Returned for Edit' status.");
         }
 
-        requestToUpdate.setCreatedByUser(currentUser); // Ensure the creator is correctly set if it wasn't fetched eagerly before
-        requestToUpdate.setDepartment(currentUser.getDepartment()); // Reset department from current user
+        requestToUpdate.setDepartment(departmentReference(currentUser)); // Reset department from current user
 
-        requestToUpdate.setBudgetCode(budgetCodeRepository.findById(formDto.getBudgetCodeId())
-                .orElseThrow(() -> new IllegalArgumentException("Invalid Budget Code ID")));
-        requestToUpdate.setCurrency(currencyRepository.findById(formDto.getCurrencyId())
-                .orElseThrow(() -> new IllegalArgumentException("Invalid Currency ID")));
+        RequestFormReferencesDto references = referenceDataService.resolveFormReferences(formDto);
+        requestToUpdate.setBudgetCode(references.getBudgetCode());
+        requestToUpdate.setCurrency(references.getCurrency());
 
         // Clear existing items and re-add from form
         requestToUpdate.getItems().clear();
@@ -152,59 +188,31 @@ public class PurchaseRequestServiceImpl implements PurchaseRequestService {
             newItem.setQuantity(itemDto.getQuantity());
             newItem.setUnitPrice(itemDto.getUnitPrice());
             newItem.setDescription(itemDto.getDescription());
-            newItem.setSupplier(supplierRepository.findById(itemDto.getSupplierId())
-                    .orElseThrow(() -> new IllegalArgumentException("Invalid Supplier ID for item: " + itemDto.getItemName())));
-            newItem.setUnit(unitRepository.findById(itemDto.getUnitId())
-                    .orElseThrow(() -> new IllegalArgumentException("Invalid Unit ID for item: " + itemDto.getItemName())));
+            newItem.setSupplier(references.getSuppliers().get(itemDto.getSupplierId()));
+            newItem.setUnit(references.getUnits().get(itemDto.getUnitId()));
             requestToUpdate.getItems().add(newItem);
             totalNetAmount = totalNetAmount.add(itemDto.getUnitPrice().multiply(BigDecimal.valueOf(itemDto.getQuantity())));
         }
         requestToUpdate.setNetAmount(totalNetAmount);
-        requestToUpdate.setGrossAmount(dbHelper.calculateGrossAmount(totalNetAmount)); // Use UDF
+        requestToUpdate.setGrossAmount(grossAmountService.calculateGrossAmount(totalNetAmount));
 
         requestToUpdate.setStatus("Pending"); // Resubmitted requests go back to Pending
-        Set<String> userRoles = currentUser.getRoles().stream().map(Role::getRoleName).collect(Collectors.toSet());
-
-        // Determine initial approval level upon resubmission
-        // This logic mirrors the one in saveNewRequest for consistency
-        if (userRoles.contains(DIRECTOR_ROLE_NAME) || userRoles.contains(PROCUREMENT_MANAGER_ROLE_NAME)) {
-            // For Directors/Procurement Managers, if they edit their own request, it still might need Director approval if high value
-            BigDecimal valueInTRY = calculateRequestValueInTRY(requestToUpdate);
-            if (valueInTRY.compareTo(HIGH_VALUE_THRESHOLD) > 0 && userRoles.contains(PROCUREMENT_MANAGER_ROLE_NAME) && !userRoles.contains(DIRECTOR_ROLE_NAME)) {
-                requestToUpdate.setCurrentApprovalLevel(3); // Needs Director
-            } else {
-                // If Director is editing, or Proc Manager is editing a low-value request, it's considered auto-approved by them
-                // This scenario for 'editing' is a bit tricky. Usually, edits re-trigger the full flow.
-                // For simplicity, let's assume if a high-level user edits and resubmits, it follows their initial submission logic.
-                // Here, we can simplify: if edited by ProcMan/Director, it may not need *their own* first level of approval again.
-                // It should go to the *next logical step* or be considered approved if they are the highest step.
-                // Let's make it go to Level 2 (ProcurementManager) if submitted by a regular Manager or Employee.
-                // If edited by Manager/Finance -> Level 2
-                // If edited by Employee -> Level 1
-                // This logic needs to be robust for who is editing.
-                // For now, let's assume it resets to the standard flow based on *editor's* role, not original submitter's level
-                if (userRoles.contains(MANAGER_ROLE_NAME) || userRoles.contains(FINANCE_OFFICER_ROLE_NAME)) {
-                    requestToUpdate.setCurrentApprovalLevel(2); // Goes to Procurement Manager
-                } else { // Employee
-                    requestToUpdate.setCurrentApprovalLevel(1); // Goes to Department Manager
-                }
-            }
-        } else if (userRoles.contains(MANAGER_ROLE_NAME) || userRoles.contains(FINANCE_OFFICER_ROLE_NAME)) {
-            requestToUpdate.setCurrentApprovalLevel(2); // Goes to Procurement Manager
-        } else { // Employee
-            requestToUpdate.setCurrentApprovalLevel(1); // Goes to Department Manager
-        }
-
+        // The level follows the editor's roles, not the original submitter's; edits never auto-approve
+        BigDecimal valueInTRY = calculateRequestValueInTRY(requestToUpdate);
+        ApprovalWorkflow workflow = approvalWorkflowService.current();
+        requestToUpdate.setCurrentApprovalLevel(
+                workflow.resubmissionLevel(currentUser.getRoleNames(), workflow.isHighValue(valueInTRY)));
 
         requestToUpdate.setRejectReason(null); // Clear previous rejection/return comments
         // CreatedAt is not updated.
         PurchaseRequest updatedRequest = purchaseRequestRepository.save(requestToUpdate);
+        // Moves the reservation to the edited budget code and amount
+        budgetReservationService.reserveForRequest(references.getBudgetCode().getBudgetCodeId(), updatedRequest.getRequestId(),
+                valueInTRY, currentUser.getUserId());
 
-        if (!files.isEmpty() && files.stream().anyMatch(f -> !f.isEmpty())) {
-            fileService.uploadFiles(updatedRequest.getRequestId(), files, userEmail);
-        }
+        fileService.attachStagedFiles(updatedRequest.getRequestId(), files, userEmail);
 
-        requestHistoryService.logAction(updatedRequest.getRequestId(), userEmail, "Resubmitted", "Request updated and resubmitted for approval.");
+        requestHistoryService.logAction(updatedRequest.getRequestId(), currentUser.getUserId(), "Resubmitted", "Request updated and resubmitted for approval.");
 
         if ("Pending".equalsIgnoreCase(updatedRequest.getStatus())) {
             notificationService.notifyRequestSubmission(updatedRequest);
@@ -213,18 +221,15 @@ public class PurchaseRequestServiceImpl implements PurchaseRequestService {
 
     @Override
     @Transactional
-    public Integer saveNewRequest(PurchaseRequestFormDto formDto, String userEmail, List<MultipartFile> files) {
-        User currentUser = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userEmail));
-        BudgetCode budgetCode = budgetCodeRepository.findById(formDto.getBudgetCodeId())
-                .orElseThrow(() -> new IllegalArgumentException("Invalid Budget Code ID"));
+    public Integer saveNewRequest(PurchaseRequestFormDto formDto, String userEmail, List<StagedUploadDto> files) {
+        CurrentUserDto currentUser = currentUserService.resolve(userEmail);
+        RequestFormReferencesDto references = referenceDataService.resolveFormReferences(formDto);
 
         PurchaseRequest newRequest = new PurchaseRequest();
-        newRequest.setCreatedByUser(currentUser);
-        newRequest.setDepartment(currentUser.getDepartment());
-        newRequest.setBudgetCode(budgetCode);
-        newRequest.setCurrency(currencyRepository.findById(formDto.getCurrencyId())
-                .orElseThrow(() -> new IllegalArgumentException("Invalid Currency ID")));
+        newRequest.setCreatedByUser(userRepository.getReferenceById(currentUser.getUserId()));
+        newRequest.setDepartment(departmentReference(currentUser));
+        newRequest.setBudgetCode(references.getBudgetCode());
+        newRequest.setCurrency(references.getCurrency());
         newRequest.setCreatedAt(LocalDateTime.now());
 
         newRequest.setItems(new ArrayList<>());
@@ -237,53 +242,39 @@ public class PurchaseRequestServiceImpl implements PurchaseRequestService {
             newItem.setQuantity(itemDto.getQuantity());
             newItem.setUnitPrice(itemDto.getUnitPrice());
             newItem.setDescription(itemDto.getDescription());
-            newItem.setSupplier(supplierRepository.findById(itemDto.getSupplierId())
-                    .orElseThrow(() -> new IllegalArgumentException("Invalid Supplier ID for item: " + itemDto.getItemName())));
-            newItem.setUnit(unitRepository.findById(itemDto.getUnitId())
-                    .orElseThrow(() -> new IllegalArgumentException("Invalid Unit ID for item: " + itemDto.getItemName())));
+            newItem.setSupplier(references.getSuppliers().get(itemDto.getSupplierId()));
+            newItem.setUnit(references.getUnits().get(itemDto.getUnitId()));
             newRequest.getItems().add(newItem);
             BigDecimal itemTotalPrice = itemDto.getUnitPrice().multiply(BigDecimal.valueOf(itemDto.getQuantity()));
             totalNetAmount = totalNetAmount.add(itemTotalPrice);
         }
         newRequest.setNetAmount(totalNetAmount);
-        newRequest.setGrossAmount(dbHelper.calculateGrossAmount(totalNetAmount)); // Use UDF
-
-        Set<String> userRoles = currentUser.getRoles().stream().map(Role::getRoleName).collect(Collectors.toSet());
-        boolean isAutoApproved = false;
-
-        if (userRoles.contains(DIRECTOR_ROLE_NAME)) {
-            newRequest.setStatus("Approved");
-            newRequest.setCurrentApprovalLevel(99); // Special level for auto-approved
-            isAutoApproved = true;
-        } else if (userRoles.contains(PROCUREMENT_MANAGER_ROLE_NAME)) {
-            BigDecimal valueInTRY = calculateRequestValueInTRY(newRequest);
-            if (valueInTRY.compareTo(HIGH_VALUE_THRESHOLD) > 0) {
-                newRequest.setStatus("Pending");
-                newRequest.setCurrentApprovalLevel(3); // Needs Director approval
-            } else {
-                newRequest.setStatus("Approved");
-                newRequest.setCurrentApprovalLevel(99); // Special level for auto-approved
-                isAutoApproved = true;
-            }
-        } else if (userRoles.contains(MANAGER_ROLE_NAME) || userRoles.contains(FINANCE_OFFICER_ROLE_NAME)) {
-            newRequest.setStatus("Pending");
-            newRequest.setCurrentApprovalLevel(2); // Needs Procurement Manager approval
-        } else { // Employee
-            newRequest.setStatus("Pending");
-            newRequest.setCurrentApprovalLevel(1); // Needs Department Manager approval
-        }
+        newRequest.setGrossAmount(grossAmountService.calculateGrossAmount(totalNetAmount));
 
-        if (isAutoApproved) {
-            consumeBudgetForAutoApprovedRequest(newRequest);
-        }
+        // Submitters skip the steps their own roles cover; FINAL_LEVEL means auto-approved
+        BigDecimal valueInTRY = calculateRequestValueInTRY(newRequest);
+        ApprovalWorkflow workflow = approvalWorkflowService.current();
+        int entryLevel = workflow.entryLevel(currentUser.getRoleNames(), workflow.isHighValue(valueInTRY));
+        boolean isAutoApproved = entryLevel == ApprovalWorkflow.FINAL_LEVEL;
+        newRequest.setStatus(isAutoApproved ? "Approved" : "Pending");
+        newRequest.setCurrentApprovalLevel(entryLevel);
 
         PurchaseRequest savedRequest = purchaseRequestRepository.save(newRequest);
-
-        if (!files.isEmpty() && files.stream().anyMatch(f -> !f.isEmpty())) {
-            fileService.uploadFiles(savedRequest.getRequestId(), files, userEmail);
+        // After the save: ledger entries need the request id
+        if (isAutoApproved) {
+            Integer budgetCodeId = references.getBudgetCode().getBudgetCodeId();
+            if (!budgetService.consumeForRequest(budgetCodeId, savedRequest.getRequestId(), valueInTRY, currentUser.getUserId())) {
+                throw budgetService.insufficientFunds(budgetCodeId, valueInTRY);
+            }
+        } else {
+            // Refuses the submission now rather than at the final approval step
+            budgetReservationService.reserveForRequest(references.getBudgetCode().getBudgetCodeId(), savedRequest.getRequestId(),
+                    valueInTRY, currentUser.getUserId());
         }
 
-        requestHistoryService.logAction(savedRequest.getRequestId(), userEmail, "Created", "New request submitted.");
+        fileService.attachStagedFiles(savedRequest.getRequestId(), files, userEmail);
+
+        requestHistoryService.logAction(savedRequest.getRequestId(), currentUser.getUserId(), "Created", "New request submitted.");
 
         if ("Pending".equalsIgnoreCase(savedRequest.getStatus())) {
             notificationService.notifyRequestSubmission(savedRequest);
@@ -300,106 +291,120 @@ public class PurchaseRequestServiceImpl implements PurchaseRequestService {
         return savedRequest.getRequestId();
     }
 
-    private void consumeBudgetForAutoApprovedRequest(PurchaseRequest request) {
-        BudgetCode budgetCode = request.getBudgetCode();
-        BigDecimal requestAmountInTRY = calculateRequestValueInTRY(request);
-        if (budgetCode.getBudgetAmount().compareTo(requestAmountInTRY) < 0) {
-            throw new InsufficientBudgetException(
-                    String.format("Request creation failed: Insufficient funds in budget code '%s'. Remaining: %.2f, Required: %.2f",
-                            budgetCode.getCode(),
-                            budgetCode.getBudgetAmount(),
-                            requestAmountInTRY)
-            );
-        }
-        BigDecimal newBudgetAmount = budgetCode.getBudgetAmount().subtract(requestAmountInTRY);
-        budgetCode.setBudgetAmount(newBudgetAmount);
-        budgetCodeRepository.save(budgetCode); // Save updated budget
-    }
-
     private BigDecimal calculateRequestValueInTRY(PurchaseRequest request) {
-        if ("TRY".equalsIgnoreCase(request.getCurrency().getCurrencyCode())) {
-            return request.getNetAmount();
-        }
-        ExchangeRate exchangeRate = exchangeRateRepository
-                .findTopByCurrencyIdAndDateLessThanEqualOrderByDateDesc(request.getCurrency().getCurrencyId(), request.getCreatedAt().toLocalDate())
-                .orElseThrow(() -> new IllegalStateException("Exchange rate not found for currency code: " + request.getCurrency().getCurrencyCode() + " on or before " + request.getCreatedAt().toLocalDate()));
-        return request.getNetAmount().multiply(exchangeRate.getRate());
+        return exchangeRateService.convertToTRY(request.getNetAmount(), request.getCurrency(), request.getCreatedAt().toLocalDate());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<PurchaseRequestDto> getRequestsForUser(String userEmail) {
-        User user = userRepository.findByEmail(userEmail).orElseThrow(() -> new UsernameNotFoundException("User not found: " + userEmail));
-        boolean isPrivileged = user.getRoles().stream().anyMatch(role ->
+    public RequestPageDto getRequestPageForUser(String userEmail, RequestListFilterDto filter) {
+        CurrentUserDto user = currentUserService.resolve(userEmail);
+        boolean isPrivileged = user.getRoleNames().stream().anyMatch(roleName ->
                 Set.of(MANAGER_ROLE_NAME, PROCUREMENT_MANAGER_ROLE_NAME, DIRECTOR_ROLE_NAME, AdminServiceImpl.ADMIN_ROLE_NAME, FINANCE_OFFICER_ROLE_NAME, AdminServiceImpl.AUDITOR_ROLE_NAME)
-                        .contains(role.getRoleName()));
+                        .contains(roleName));
+
+        int pageSize = filter.getSize() == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(filter.getSize(), MAX_PAGE_SIZE));
+        String status = (filter.getStatus() == null || filter.getStatus().isBlank()) ? null : filter.getStatus();
+        LocalDateTime afterCreatedAt = null;
+        Integer afterRequestId = null;
+        if (filter.getCursor() != null && !filter.getCursor().isBlank()) {
+            String[] position = decodeCursor(filter.getCursor());
+            afterCreatedAt = LocalDateTime.parse(position[0]);
+            afterRequestId = Integer.valueOf(position[1]);
+        }
 
-        List<PurchaseRequest> requests;
-        if (isPrivileged) {
-            requests = purchaseRequestRepository.findAllWithDetails();
-        } else {
-            requests = purchaseRequestRepository.findByCreatorIdWithDetails(user.getUserId());
+        // Fetch one extra row to know whether another page exists without running a COUNT
+        List<PurchaseRequestDto> rows = purchaseRequestRepository.findSummaryPage(
+                isPrivileged ? null : user.getUserId(), status, filter.getDepartmentId(), filter.getCurrencyId(),
+                afterCreatedAt, afterRequestId, pageSize + 1);
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            PurchaseRequestDto last = rows.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getCreatedAt(), last.getRequestId());
         }
-        return requests.stream().map(this::convertToDto).collect(Collectors.toList());
+        return new RequestPageDto(rows, nextCursor, pageSize);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<PurchaseRequestDto> getPendingApprovalsForUser(String userEmail) {
-        User currentUser = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userEmail));
-
-        // Fetch requests needing department manager approval if user is a manager
-        List<PurchaseRequest> managerApprovalQueue = new ArrayList<>();
-        if (currentUser.getRoles().stream().anyMatch(role -> MANAGER_ROLE_NAME.equals(role.getRoleName()))) {
-            // A user is a manager of a department if their UserID is the ManagerUserID in the Departments table.
-            // We need to find which departments this user manages.
-            List<Department> managedDepartments = currentUser.getManagedDepartments(); // Assuming User entity has a @OneToMany to Departments where they are manager
-            if (managedDepartments != null && !managedDepartments.isEmpty()) {
-                for (Department dept : managedDepartments) {
-                    managerApprovalQueue.addAll(purchaseRequestRepository.findPendingDepartmentManagerApprovals(currentUser.getUserId(), dept.getDepartmentId()));
-                }
-            }
-        }
+    public RequestListFilterOptionsDto getRequestListFilterOptions() {
+        RequestListFilterOptionsDto options = new RequestListFilterOptionsDto();
+        options.setStatuses(REQUEST_STATUSES);
+        options.setDepartments(departmentRepository.findAll().stream()
+                .map(d -> new SimpleDepartmentDto(d.getDepartmentId(), d.getDepartmentName()))
+                .collect(Collectors.toList()));
+        options.setCurrencies(currencyRepository.findAll());
+        return options;
+    }
 
-        // Fetch requests needing approval based on roles (ProcurementManager, Director)
-        Set<Integer> generalRoleIds = currentUser.getRoles().stream()
-                .filter(role -> Set.of(PROCUREMENT_MANAGER_ROLE_NAME, DIRECTOR_ROLE_NAME).contains(role.getRoleName()))
-                .map(Role::getRoleId)
-                .collect(Collectors.toSet());
+    private static String encodeCursor(LocalDateTime createdAt, Integer requestId) {
+        String raw = createdAt + "|" + requestId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
 
-        List<PurchaseRequest> roleBasedApprovalQueue = new ArrayList<>();
-        if (!generalRoleIds.isEmpty()) {
-            roleBasedApprovalQueue = purchaseRequestRepository.findPendingApprovalsByRoleIds(generalRoleIds);
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] position = raw.split("\\|");
+            if (position.length != 2) {
+                throw new IllegalArgumentException("Invalid page cursor");
+            }
+            LocalDateTime.parse(position[0]);
+            Integer.parseInt(position[1]);
+            return position;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid page cursor", e);
         }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<PurchaseRequestDto> getPendingApprovalsForUser(String userEmail, int page, int size) {
+        CurrentUserDto currentUser = currentUserService.resolve(userEmail);
+        Integer managerId = approvalInboxManagerId(currentUser);
+        Set<Integer> roleIds = approvalInboxRoleIds(currentUser);
+
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        List<PurchaseRequestDto> content = purchaseRequestRepository.findApprovalInbox(managerId, roleIds, pageable);
+        // The COUNT only runs when the page is full or not the first one
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> purchaseRequestRepository.countApprovalInbox(managerId, roleIds));
+    }
 
-        // Combine and convert to DTOs
-        Stream<PurchaseRequestDto> managerDtoStream = managerApprovalQueue.stream().map(this::convertToDto);
-        Stream<PurchaseRequestDto> roleDtoStream = roleBasedApprovalQueue.stream().map(this::convertToDto);
+    @Override
+    @Transactional(readOnly = true)
+    public long countPendingApprovalsForUser(String userEmail) {
+        CurrentUserDto currentUser = currentUserService.resolve(userEmail);
+        return purchaseRequestRepository.countApprovalInbox(approvalInboxManagerId(currentUser), approvalInboxRoleIds(currentUser));
+    }
 
-        return Stream.concat(managerDtoStream, roleDtoStream)
-                .distinct() // Avoid duplicates if a request falls into multiple categories for the same user (unlikely with current logic)
-                .collect(Collectors.toList());
+    // Department managers act on level 1 of the departments whose ManagerUserID is theirs
+    private Integer approvalInboxManagerId(CurrentUserDto user) {
+        return user.hasRole(MANAGER_ROLE_NAME) ? user.getUserId() : NO_MATCH_ID;
     }
 
-    // You'll need to adjust PurchaseRequestRepository for findPendingDepartmentManagerApprovals to take departmentId
-    // And add getManagedDepartments to User model.
-    // Example for User model:
-    // @OneToMany(mappedBy = "managerUser")
-    // private List<Department> managedDepartments;
-    // Example for PurchaseRequestRepository:
-    // @Query("SELECT pr FROM PurchaseRequest pr JOIN FETCH pr.createdByUser JOIN FETCH pr.department d JOIN FETCH pr.currency " +
-    //        "WHERE pr.status = 'Pending' AND pr.currentApprovalLevel = 1 AND d.departmentId = :departmentId AND d.managerUser.userId = :managerId")
-    // List<PurchaseRequest> findPendingDepartmentManagerApprovals(@Param("managerId") Integer managerId, @Param("departmentId") Integer departmentId);
+    // Holders of the role-routed steps (ProcurementManager, Director) act on the levels whose ApprovalStep requires their role
+    private Set<Integer> approvalInboxRoleIds(CurrentUserDto user) {
+        Set<String> routedRoleNames = approvalWorkflowService.current().getRoutedRoleNames();
+        Set<Integer> roleIds = user.getRoleIdsByName().entrySet().stream()
+                .filter(role -> routedRoleNames.contains(role.getKey()))
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toSet());
+        return roleIds.isEmpty() ? Set.of(NO_MATCH_ID) : roleIds;
+    }
 
+    // Requests only store the department as a foreign key
+    private Department departmentReference(CurrentUserDto user) {
+        return user.getDepartmentId() != null ? departmentRepository.getReferenceById(user.getDepartmentId()) : null;
+    }
 
     @Override
     public List<PurchaseRequestDto> getAllRequests() {
         // This method was empty, providing a basic implementation.
         // It might need more specific logic based on actual requirements (e.g., admin view)
-        return purchaseRequestRepository.findAllWithDetails().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return purchaseRequestRepository.findAllSummaries();
     }
 
     @Override
@@ -409,25 +414,14 @@ public class PurchaseRequestServiceImpl implements PurchaseRequestService {
                 .orElseThrow(() -> new RuntimeException("Purchase Request not found with ID: " + requestId));
 
         PurchaseRequestDetailDto dto = convertToDetailDto(request);
-        dto.setGrossAmount(dbHelper.calculateGrossAmount(dto.getNetAmount()));
+        // GrossAmount is persisted on every save; only rows written before that need computing
+        if (dto.getGrossAmount() == null) {
+            dto.setGrossAmount(grossAmountService.calculateGrossAmount(dto.getNetAmount()));
+        }
         dto.setDaysSinceCreated(dbHelper.getDaysSinceRequest(requestId));
         return dto;
     }
 
-    private PurchaseRequestDto convertToDto(PurchaseRequest request) {
-        PurchaseRequestDto dto = new PurchaseRequestDto();
-        dto.setRequestId(request.getRequestId());
-        dto.setCreatorFullName(request.getCreatedByUser().getFirstName() + " " + request.getCreatedByUser().getLastName());
-        dto.setDepartmentName(request.getDepartment().getDepartmentName());
-        dto.setStatus(request.getStatus());
-        dto.setNetAmount(request.getNetAmount());
-        dto.setCurrencyCode(request.getCurrency().getCurrencyCode());
-        dto.setCreatedAt(request.getCreatedAt());
-        dto.setRejectReason(request.getRejectReason());
-        dto.setCreatorId(request.getCreatedByUser().getUserId());
-        return dto;
-    }
-
     private PurchaseRequestDetailDto convertToDetailDto(PurchaseRequest request) {
         PurchaseRequestDetailDto dto = new PurchaseRequestDetailDto();
         dto.setRequestId(request.getRequestId());
@@ -462,19 +456,22 @@ public class PurchaseRequestServiceImpl implements PurchaseRequestService {
     @Transactional(readOnly = true)
     public List<PurchaseRequestDto> searchUserRequests(String userEmail, String searchTerm) {
         // Using native query with FREETEXT which is defined in PurchaseRequestRepository
-        List<PurchaseRequest> freetextResults = purchaseRequestRepository.searchByItemFreetext(searchTerm);
+        List<Integer> matchingIds = purchaseRequestRepository.searchRequestIdsByItemFreetext(searchTerm);
 
-        // Convert to DTOs
-        List<PurchaseRequestDto> allFoundRequests = freetextResults.stream()
-                .map(this::convertToDto) // Assuming convertToDto fetches necessary details or they are part of freetextResults
-                .collect(Collectors.toList());
+        // Project the matches in chunks to stay under SQL Server's 2100 parameter limit
+        List<PurchaseRequestDto> allFoundRequests = new ArrayList<>();
+        for (int i = 0; i < matchingIds.size(); i += SEARCH_ID_CHUNK_SIZE) {
+            allFoundRequests.addAll(purchaseRequestRepository.findSummariesByIds(
+                    matchingIds.subList(i, Math.min(i + SEARCH_ID_CHUNK_SIZE, matchingIds.size()))));
+        }
+        allFoundRequests.sort(Comparator.comparing(PurchaseRequestDto::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
 
 
         // Then, filter them based on the user's permissions in Java.
-        User user = userRepository.findByEmail(userEmail).orElseThrow(() -> new UsernameNotFoundException("User not found: " + userEmail));
-        boolean isPrivileged = user.getRoles().stream().anyMatch(role ->
+        CurrentUserDto user = currentUserService.resolve(userEmail);
+        boolean isPrivileged = user.getRoleNames().stream().anyMatch(roleName ->
                 Set.of(MANAGER_ROLE_NAME, PROCUREMENT_MANAGER_ROLE_NAME, DIRECTOR_ROLE_NAME, AdminServiceImpl.ADMIN_ROLE_NAME, FINANCE_OFFICER_ROLE_NAME, AdminServiceImpl.AUDITOR_ROLE_NAME)
-                        .contains(role.getRoleName()));
+                        .contains(roleName));
 
         if (isPrivileged) {
             return allFoundRequests;
@@ -490,9 +487,6 @@ public class PurchaseRequestServiceImpl implements PurchaseRequestService {
     @Override
     @Transactional(readOnly = true)
     public List<PurchaseRequestDto> getRequestsByBudget(Integer budgetCodeId) {
-        return purchaseRequestRepository.findByBudget(budgetCodeId)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return purchaseRequestRepository.findSummariesByBudget(budgetCodeId);
     }
 }
\ No newline at end of file
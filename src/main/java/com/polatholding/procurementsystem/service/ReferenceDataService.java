@@ -0,0 +1,20 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.dto.CacheStatsDto;
+import com.polatholding.procurementsystem.dto.PurchaseRequestFormDto;
+import com.polatholding.procurementsystem.dto.RequestFormReferencesDto;
+
+import java.util.List;
+
+public interface ReferenceDataService {
+
+    RequestFormReferencesDto resolveFormReferences(PurchaseRequestFormDto formDto);
+
+    void evictSupplier(Integer supplierId);
+
+    void evictBudgetCode(Integer budgetCodeId);
+
+    void evictAll();
+
+    List<CacheStatsDto> getCacheStats();
+}
@@ -0,0 +1,184 @@
+package com.polatholding.procurementsystem.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.polatholding.procurementsystem.dto.CacheStatsDto;
+import com.polatholding.procurementsystem.dto.PurchaseRequestFormDto;
+import com.polatholding.procurementsystem.dto.RequestFormReferencesDto;
+import com.polatholding.procurementsystem.dto.RequestItemFormDto;
+import com.polatholding.procurementsystem.model.BudgetCode;
+import com.polatholding.procurementsystem.model.Currency;
+import com.polatholding.procurementsystem.model.Supplier;
+import com.polatholding.procurementsystem.model.Unit;
+import com.polatholding.procurementsystem.repository.BudgetCodeRepository;
+import com.polatholding.procurementsystem.repository.CurrencyRepository;
+import com.polatholding.procurementsystem.repository.SupplierRepository;
+import com.polatholding.procurementsystem.repository.UnitRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Bounded in-memory cache for the reference rows a request form points at.
+ * Suppliers, units and currencies are handed out as detached entities because the
+ * request save path only uses them as foreign keys. Budget codes are cached for
+ * validation only; the request gets a lazy reference so budget amounts are always
+ * read fresh inside the saving transaction.
+ */
+@Service
+public class ReferenceDataServiceImpl implements ReferenceDataService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferenceDataServiceImpl.class);
+
+    private final SupplierRepository supplierRepository;
+    private final UnitRepository unitRepository;
+    private final CurrencyRepository currencyRepository;
+    private final BudgetCodeRepository budgetCodeRepository;
+
+    private final Cache<Integer, Supplier> supplierCache;
+    private final Cache<Integer, Unit> unitCache;
+    private final Cache<Integer, Currency> currencyCache;
+    private final Cache<Integer, BudgetCode> budgetCodeCache;
+
+    public ReferenceDataServiceImpl(SupplierRepository supplierRepository,
+                                    UnitRepository unitRepository,
+                                    CurrencyRepository currencyRepository,
+                                    BudgetCodeRepository budgetCodeRepository,
+                                    @Value("${procurement.cache.reference-data.max-size:5000}") long maxSize,
+                                    @Value("${procurement.cache.reference-data.ttl-minutes:60}") long ttlMinutes) {
+        this.supplierRepository = supplierRepository;
+        this.unitRepository = unitRepository;
+        this.currencyRepository = currencyRepository;
+        this.budgetCodeRepository = budgetCodeRepository;
+        this.supplierCache = newCache(maxSize, ttlMinutes);
+        this.unitCache = newCache(maxSize, ttlMinutes);
+        this.currencyCache = newCache(maxSize, ttlMinutes);
+        this.budgetCodeCache = newCache(maxSize, ttlMinutes);
+    }
+
+    private static <V> Cache<Integer, V> newCache(long maxSize, long ttlMinutes) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public RequestFormReferencesDto resolveFormReferences(PurchaseRequestFormDto formDto) {
+        BudgetCode budgetCode = lookup(budgetCodeCache, formDto.getBudgetCodeId(),
+                ids -> loadById(budgetCodeRepository.findAllById(List.copyOf(ids)), BudgetCode::getBudgetCodeId));
+        if (budgetCode == null) {
+            throw new IllegalArgumentException("Invalid Budget Code ID");
+        }
+        Currency currency = lookup(currencyCache, formDto.getCurrencyId(),
+                ids -> loadById(currencyRepository.findAllById(List.copyOf(ids)), Currency::getCurrencyId));
+        if (currency == null) {
+            throw new IllegalArgumentException("Invalid Currency ID");
+        }
+
+        // Collect every id on the form first so each cache misses at most once per submission.
+        Set<Integer> supplierIds = new HashSet<>();
+        Set<Integer> unitIds = new HashSet<>();
+        for (RequestItemFormDto itemDto : formDto.getItems()) {
+            if (itemDto.getItemName() == null || itemDto.getItemName().trim().isEmpty()) continue;
+            if (itemDto.getSupplierId() != null) supplierIds.add(itemDto.getSupplierId());
+            if (itemDto.getUnitId() != null) unitIds.add(itemDto.getUnitId());
+        }
+        Map<Integer, Supplier> suppliers = supplierCache.getAll(supplierIds,
+                ids -> loadById(supplierRepository.findAllById(List.copyOf(ids)), Supplier::getSupplierId));
+        Map<Integer, Unit> units = unitCache.getAll(unitIds,
+                ids -> loadById(unitRepository.findAllById(List.copyOf(ids)), Unit::getUnitId));
+
+        for (RequestItemFormDto itemDto : formDto.getItems()) {
+            if (itemDto.getItemName() == null || itemDto.getItemName().trim().isEmpty()) continue;
+            if (!suppliers.containsKey(itemDto.getSupplierId())) {
+                throw new IllegalArgumentException("Invalid Supplier ID for item: " + itemDto.getItemName());
+            }
+            if (!units.containsKey(itemDto.getUnitId())) {
+                throw new IllegalArgumentException("Invalid Unit ID for item: " + itemDto.getItemName());
+            }
+        }
+
+        RequestFormReferencesDto references = new RequestFormReferencesDto();
+        references.setBudgetCode(budgetCodeRepository.getReferenceById(budgetCode.getBudgetCodeId()));
+        references.setCurrency(currency);
+        references.setSuppliers(suppliers);
+        references.setUnits(units);
+        return references;
+    }
+
+    private static <V> V lookup(Cache<Integer, V> cache, Integer id,
+                                Function<Set<? extends Integer>, Map<Integer, V>> loader) {
+        return id == null ? null : cache.getAll(Set.of(id), loader).get(id);
+    }
+
+    private static <V> Map<Integer, V> loadById(Iterable<V> rows, Function<V, Integer> idGetter) {
+        return StreamSupport.stream(rows.spliterator(), false)
+                .collect(Collectors.toMap(idGetter, Function.identity()));
+    }
+
+    @Override
+    public void evictSupplier(Integer supplierId) {
+        evictNowAndAfterCommit(() -> supplierCache.invalidate(supplierId));
+        log.debug("Evicted SupplierID {} from reference data cache", supplierId);
+    }
+
+    @Override
+    public void evictBudgetCode(Integer budgetCodeId) {
+        evictNowAndAfterCommit(() -> budgetCodeCache.invalidate(budgetCodeId));
+        log.debug("Evicted BudgetCodeID {} from reference data cache", budgetCodeId);
+    }
+
+    @Override
+    public void evictAll() {
+        evictNowAndAfterCommit(() -> {
+            supplierCache.invalidateAll();
+            unitCache.invalidateAll();
+            currencyCache.invalidateAll();
+            budgetCodeCache.invalidateAll();
+        });
+        log.info("Reference data cache cleared");
+    }
+
+    // Evicting again after commit stops a concurrent reader from re-caching the pre-update row.
+    private void evictNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    @Override
+    public List<CacheStatsDto> getCacheStats() {
+        return List.of(
+                toStatsDto("suppliers", supplierCache),
+                toStatsDto("units", unitCache),
+                toStatsDto("currencies", currencyCache),
+                toStatsDto("budgetCodes", budgetCodeCache));
+    }
+
+    private static CacheStatsDto toStatsDto(String name, Cache<Integer, ?> cache) {
+        CacheStats stats = cache.stats();
+        return new CacheStatsDto(name, cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount());
+    }
+}
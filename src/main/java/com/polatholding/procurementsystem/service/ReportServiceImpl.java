@@ -1,41 +1,58 @@
 package com.polatholding.procurementsystem.service;
 
+import com.polatholding.procurementsystem.dto.BudgetConsumptionRowDto;
 import com.polatholding.procurementsystem.dto.BudgetStatusDto;
 import com.polatholding.procurementsystem.model.BudgetCode;
+import com.polatholding.procurementsystem.model.Currency;
 import com.polatholding.procurementsystem.repository.BudgetCodeRepository;
-import com.polatholding.procurementsystem.repository.PurchaseRequestRepository;
-import com.polatholding.procurementsystem.repository.ExchangeRateRepository;
-import com.polatholding.procurementsystem.model.PurchaseRequest;
-import com.polatholding.procurementsystem.model.ExchangeRate;
+import com.polatholding.procurementsystem.repository.CurrencyRepository;
+import com.polatholding.procurementsystem.repository.DatabaseHelperRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ReportServiceImpl implements ReportService {
 
     private final BudgetCodeRepository budgetCodeRepository;
-    private final PurchaseRequestRepository purchaseRequestRepository;
-    private final ExchangeRateRepository exchangeRateRepository;
+    private final CurrencyRepository currencyRepository;
+    private final DatabaseHelperRepository dbHelper;
+    private final ExchangeRateService exchangeRateService;
 
     public ReportServiceImpl(BudgetCodeRepository budgetCodeRepository,
-                             PurchaseRequestRepository purchaseRequestRepository,
-                             ExchangeRateRepository exchangeRateRepository) {
+                             CurrencyRepository currencyRepository,
+                             DatabaseHelperRepository dbHelper,
+                             ExchangeRateService exchangeRateService) {
         this.budgetCodeRepository = budgetCodeRepository;
-        this.purchaseRequestRepository = purchaseRequestRepository;
-        this.exchangeRateRepository = exchangeRateRepository;
+        this.currencyRepository = currencyRepository;
+        this.dbHelper = dbHelper;
+        this.exchangeRateService = exchangeRateService;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<BudgetStatusDto> getBudgetStatusReport() {
-        List<BudgetCode> allBudgets = budgetCodeRepository.findAll();
-        List<BudgetStatusDto> report = new ArrayList<>();
+        // Three round trips regardless of budget or request count: budgets, currencies, one aggregate
+        List<BudgetCode> allBudgets = budgetCodeRepository.findAllWithDepartment();
+        Map<Integer, Currency> currencies = currencyRepository.findAll().stream()
+                .collect(Collectors.toMap(Currency::getCurrencyId, Function.identity()));
+
+        Map<Integer, BigDecimal> consumedByBudget = new HashMap<>();
+        for (BudgetConsumptionRowDto row : dbHelper.getApprovedNetTotalsByBudgetCurrencyDay()) {
+            BigDecimal value = exchangeRateService.convertToTRY(
+                    row.getNetTotal(), currencies.get(row.getCurrencyId()), row.getRequestDate());
+            consumedByBudget.merge(row.getBudgetCodeId(), value, BigDecimal::add);
+        }
 
+        List<BudgetStatusDto> report = new ArrayList<>();
         for (BudgetCode budget : allBudgets) {
             BudgetStatusDto dto = new BudgetStatusDto();
             dto.setBudgetCodeId(budget.getBudgetCodeId());
@@ -43,22 +60,7 @@ public class ReportServiceImpl implements ReportService {
             dto.setBudgetCode(budget.getCode());
             dto.setYear(budget.getYear());
 
-            BigDecimal consumedAmount = BigDecimal.ZERO;
-            for (PurchaseRequest pr : purchaseRequestRepository.findApprovedByBudget(budget.getBudgetCodeId())) {
-                BigDecimal value;
-                if ("TRY".equalsIgnoreCase(pr.getCurrency().getCurrencyCode())) {
-                    value = pr.getNetAmount();
-                } else {
-                    ExchangeRate rate = exchangeRateRepository
-                            .findTopByCurrencyIdAndDateLessThanEqualOrderByDateDesc(
-                                    pr.getCurrency().getCurrencyId(),
-                                    pr.getCreatedAt().toLocalDate())
-                            .orElseThrow(() -> new IllegalStateException(
-                                    "Exchange rate not found for currency code: " + pr.getCurrency().getCurrencyCode()));
-                    value = pr.getNetAmount().multiply(rate.getRate());
-                }
-                consumedAmount = consumedAmount.add(value);
-            }
+            BigDecimal consumedAmount = consumedByBudget.getOrDefault(budget.getBudgetCodeId(), BigDecimal.ZERO);
             BigDecimal currentAmount = budget.getBudgetAmount();
             BigDecimal initialAmount = currentAmount.add(consumedAmount);
 
@@ -79,4 +81,4 @@ public class ReportServiceImpl implements ReportService {
 
         return report;
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,21 @@
 package com.polatholding.procurementsystem.service;
 
+import com.polatholding.procurementsystem.dto.RequestHistoryFilterDto;
+import com.polatholding.procurementsystem.dto.RequestHistoryPageDto;
+
+import java.io.Writer;
+
 public interface RequestHistoryService {
     void logAction(int requestId, String userEmail, String action, String details);
 
-    java.util.List<com.polatholding.procurementsystem.dto.RequestHistoryDto> getAllHistory();
+    // Queued and written in batches after the caller's transaction commits
+    void logAction(int requestId, Integer userId, String action, String details);
+
+    // Writes everything queued so far on the calling thread
+    void flush();
+
+    RequestHistoryPageDto getHistoryPage(RequestHistoryFilterDto filter);
+
+    // Writes every matching entry as CSV, newest first, straight from the result set
+    void exportHistoryCsv(RequestHistoryFilterDto filter, Writer writer);
 }
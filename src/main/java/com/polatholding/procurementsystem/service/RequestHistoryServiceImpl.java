@@ -1,57 +1,268 @@
 package com.polatholding.procurementsystem.service;
 
-import com.polatholding.procurementsystem.model.RequestHistory;
 import com.polatholding.procurementsystem.model.User;
 import com.polatholding.procurementsystem.dto.RequestHistoryDto;
+import com.polatholding.procurementsystem.dto.RequestHistoryEntryDto;
+import com.polatholding.procurementsystem.dto.RequestHistoryFilterDto;
+import com.polatholding.procurementsystem.dto.RequestHistoryPageDto;
 import com.polatholding.procurementsystem.repository.RequestHistoryRepository;
 import com.polatholding.procurementsystem.repository.UserRepository;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * History entries are queued in memory once the logging transaction commits and written by a
+ * background flusher as one JDBC batch every batch-size entries or flush-interval-ms, whichever
+ * comes first. Entries queued when the JVM dies before a flush are lost; approval decisions use
+ * the durable outbox instead (see OutboxServiceImpl).
+ */
 @Service
 public class RequestHistoryServiceImpl implements RequestHistoryService {
 
+    private static final Logger log = LoggerFactory.getLogger(RequestHistoryServiceImpl.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int NO_MATCH_ID = -1;
+    private static final DateTimeFormatter CSV_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
     private final RequestHistoryRepository requestHistoryRepository;
     private final UserRepository userRepository;
     private final com.polatholding.procurementsystem.repository.DatabaseHelperRepository dbHelper;
+    private final CurrentUserService currentUserService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final LinkedBlockingDeque<RequestHistoryEntryDto> pending;
+    private final int batchSize;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("history-writer").daemon(true).factory());
 
     public RequestHistoryServiceImpl(RequestHistoryRepository requestHistoryRepository,
                                      UserRepository userRepository,
-                                     com.polatholding.procurementsystem.repository.DatabaseHelperRepository dbHelper) {
+                                     com.polatholding.procurementsystem.repository.DatabaseHelperRepository dbHelper,
+                                     CurrentUserService currentUserService,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${procurement.history.writer.batch-size:200}") int batchSize,
+                                     @Value("${procurement.history.writer.flush-interval-ms:1000}") long flushIntervalMs,
+                                     @Value("${procurement.history.writer.queue-capacity:20000}") int queueCapacity) {
         this.requestHistoryRepository = requestHistoryRepository;
         this.userRepository = userRepository;
         this.dbHelper = dbHelper;
+        this.currentUserService = currentUserService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.pending = new LinkedBlockingDeque<>(queueCapacity);
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
     }
 
     @Override
-    @Transactional
     public void logAction(int requestId, String userEmail, String action, String details) {
-        User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + userEmail));
-        dbHelper.logHistoryAction(requestId, user.getUserId(), action, details);
+        logAction(requestId, currentUserService.resolve(userEmail).getUserId(), action, details);
+    }
+
+    @Override
+    public void logAction(int requestId, Integer userId, String action, String details) {
+        RequestHistoryEntryDto entry = new RequestHistoryEntryDto(requestId, userId, action, details, LocalDateTime.now());
+        // A rolled-back request must not leave history behind, so nothing is queued before commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(entry);
+                }
+            });
+        } else {
+            enqueue(entry);
+        }
+    }
+
+    // Runs from afterCommit, so it must not throw: the caller's work is already committed
+    private void enqueue(RequestHistoryEntryDto entry) {
+        // A full queue means the database is falling behind; write on the caller's thread once rather than drop audit rows
+        if (!pending.offer(entry)) {
+            flushQuietly();
+            if (!pending.offer(entry)) {
+                log.error("History queue full and database write failing, dropping entry {} for RequestID {}",
+                        entry.getAction(), entry.getRequestId());
+                return;
+            }
+        }
+        if (pending.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushScheduled.set(false);
+                flushQuietly();
+            });
+        }
+    }
+
+    @Override
+    public void flush() {
+        writeLock.lock();
+        try {
+            List<RequestHistoryEntryDto> batch = new ArrayList<>(batchSize);
+            while (pending.drainTo(batch, batchSize) > 0) {
+                if (!writeBatch(batch)) {
+                    throw new IllegalStateException("RequestHistory batch write failed; " + pending.size() + " entries still queued");
+                }
+                batch.clear();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("History flush failed, will retry: {}", e.getMessage());
+        }
+    }
+
+    // Returns false when the rows were put back for a later retry. Each write runs in its own
+    // transaction, so a failed batch leaves no rows behind to be written twice by the retry.
+    private boolean writeBatch(List<RequestHistoryEntryDto> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> dbHelper.insertRequestHistory(batch));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // One bad row (e.g. a request deleted meanwhile) must not block the rest
+            for (int i = 0; i < batch.size(); i++) {
+                RequestHistoryEntryDto entry = batch.get(i);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> dbHelper.insertRequestHistory(List.of(entry)));
+                } catch (DataIntegrityViolationException rowError) {
+                    log.error("Dropping history entry {} for RequestID {}: {}", entry.getAction(), entry.getRequestId(), rowError.getMessage());
+                } catch (RuntimeException rowError) {
+                    requeue(batch.subList(i, batch.size()));
+                    return false;
+                }
+            }
+            return true;
+        } catch (RuntimeException e) {
+            requeue(batch);
+            return false;
+        }
+    }
+
+    // Back at the head of the queue, in their original order
+    private void requeue(List<RequestHistoryEntryDto> entries) {
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            if (!pending.offerFirst(entries.get(i))) {
+                log.error("History queue full, dropping entry {} for RequestID {}", entries.get(i).getAction(), entries.get(i).getRequestId());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Could not drain {} queued history entries on shutdown: {}", pending.size(), e.getMessage());
+        }
     }
 
     @Override
     @Transactional(readOnly = true)
-    public java.util.List<RequestHistoryDto> getAllHistory() {
-        return requestHistoryRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(java.util.stream.Collectors.toList());
-    }
-
-    private RequestHistoryDto convertToDto(RequestHistory history) {
-        RequestHistoryDto dto = new RequestHistoryDto();
-        dto.setHistoryId(history.getHistoryId());
-        dto.setRequestId(history.getRequestId());
-        dto.setAction(history.getAction());
-        dto.setDetails(history.getDetails());
-        dto.setEventDate(history.getEventDate());
-        if (history.getUser() != null) {
-            dto.setUserEmail(history.getUser().getEmail());
-        }
-        return dto;
+    public RequestHistoryPageDto getHistoryPage(RequestHistoryFilterDto filter) {
+        int pageSize = filter.getSize() == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(filter.getSize(), MAX_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists without running a COUNT
+        List<RequestHistoryDto> rows = requestHistoryRepository.findHistoryPage(
+                filter.getRequestId(), resolveUserFilter(filter), blankToNull(filter.getAction()),
+                fromOf(filter), toExclusiveOf(filter), filter.getBefore(), pageSize + 1);
+
+        Integer nextBefore = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            nextBefore = rows.get(pageSize - 1).getHistoryId();
+        }
+        return new RequestHistoryPageDto(rows, nextBefore, pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportHistoryCsv(RequestHistoryFilterDto filter, Writer writer) {
+        try {
+            writer.write("HistoryID,RequestID,User,Action,Details,EventDate\r\n");
+            dbHelper.streamRequestHistory(filter.getRequestId(), resolveUserFilter(filter), blankToNull(filter.getAction()),
+                    fromOf(filter), toExclusiveOf(filter), entry -> writeCsvRow(writer, entry));
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeCsvRow(Writer writer, RequestHistoryDto entry) {
+        try {
+            writer.write(entry.getHistoryId() + "," + entry.getRequestId() + ","
+                    + csvField(entry.getUserEmail()) + "," + csvField(entry.getAction()) + ","
+                    + csvField(entry.getDetails()) + ","
+                    + (entry.getEventDate() != null ? entry.getEventDate().format(CSV_DATE_FORMAT) : "") + "\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Quotes per RFC 4180; a leading formula character is neutralised so spreadsheets do not evaluate user text
+    private static String csvField(String value) {
+        if (value == null || value.isEmpty()) return "";
+        String text = "=+-@".indexOf(value.charAt(0)) >= 0 ? "'" + value : value;
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
+    // Filtering by UserID keeps the seek on IX_RequestHistory_UserID_HistoryID; an unknown e-mail matches nothing
+    private Integer resolveUserFilter(RequestHistoryFilterDto filter) {
+        String email = blankToNull(filter.getUserEmail());
+        if (email == null) {
+            return null;
+        }
+        return userRepository.findByEmail(email.trim()).map(User::getUserId).orElse(NO_MATCH_ID);
+    }
+
+    private static LocalDateTime fromOf(RequestHistoryFilterDto filter) {
+        return filter.getFrom() != null ? filter.getFrom().atStartOfDay() : null;
+    }
+
+    private static LocalDateTime toExclusiveOf(RequestHistoryFilterDto filter) {
+        return filter.getTo() != null ? filter.getTo().plusDays(1).atStartOfDay() : null;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
     }
 }
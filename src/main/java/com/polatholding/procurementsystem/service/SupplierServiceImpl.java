@@ -17,11 +17,14 @@ public class SupplierServiceImpl implements SupplierService {
 
     private final SupplierRepository supplierRepository;
     private final com.polatholding.procurementsystem.repository.DatabaseHelperRepository dbHelper;
+    private final ReferenceDataService referenceDataService;
 
     public SupplierServiceImpl(SupplierRepository supplierRepository,
-                               com.polatholding.procurementsystem.repository.DatabaseHelperRepository dbHelper) {
+                               com.polatholding.procurementsystem.repository.DatabaseHelperRepository dbHelper,
+                               ReferenceDataService referenceDataService) {
         this.supplierRepository = supplierRepository;
         this.dbHelper = dbHelper;
+        this.referenceDataService = referenceDataService;
     }
 
     @Override
@@ -40,6 +43,7 @@ public class SupplierServiceImpl implements SupplierService {
                 .orElseThrow(() -> new RuntimeException("Supplier not found: " + supplierId));
         supplier.setStatus("Active");
         supplierRepository.save(supplier);
+        referenceDataService.evictSupplier(supplierId);
     }
 
     @Override
@@ -49,6 +53,7 @@ public class SupplierServiceImpl implements SupplierService {
                 .orElseThrow(() -> new RuntimeException("Supplier not found: " + supplierId));
         supplier.setStatus("Rejected");
         supplierRepository.save(supplier);
+        referenceDataService.evictSupplier(supplierId);
     }
 
     @Override
@@ -109,6 +114,7 @@ public class SupplierServiceImpl implements SupplierService {
         supplierToUpdate.setPhone(formDto.getPhone());
         supplierToUpdate.setDescription(formDto.getDescription());
         supplierRepository.save(supplierToUpdate);
+        referenceDataService.evictSupplier(supplierId);
     }
 
     @Override
@@ -126,5 +132,6 @@ public class SupplierServiceImpl implements SupplierService {
         // If status is Pending or Rejected, don't change it
 
         supplierRepository.save(supplier);
+        referenceDataService.evictSupplier(supplierId);
     }
 }
\ No newline at end of file
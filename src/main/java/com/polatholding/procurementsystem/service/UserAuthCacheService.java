@@ -0,0 +1,17 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.dto.AuthUserSnapshotDto;
+import com.polatholding.procurementsystem.dto.CacheStatsDto;
+
+import java.util.Optional;
+
+public interface UserAuthCacheService {
+
+    Optional<AuthUserSnapshotDto> findByEmail(String email);
+
+    void evictUser(Integer userId);
+
+    void evictAll();
+
+    CacheStatsDto getCacheStats();
+}
@@ -0,0 +1,98 @@
+package com.polatholding.procurementsystem.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.polatholding.procurementsystem.dto.AuthUserSnapshotDto;
+import com.polatholding.procurementsystem.dto.CacheStatsDto;
+import com.polatholding.procurementsystem.model.Role;
+import com.polatholding.procurementsystem.model.User;
+import com.polatholding.procurementsystem.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded, TTL-based cache of the user data login and authorization checks read.
+ * Entries are keyed by the e-mail as typed; eviction is by UserID so every spelling goes at once.
+ * Only immutable snapshots are cached: Spring Security erases the password on the
+ * UserDetails it authenticated, so callers must build a fresh UserDetails per lookup.
+ */
+@Service
+public class UserAuthCacheServiceImpl implements UserAuthCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserAuthCacheServiceImpl.class);
+
+    private final UserRepository userRepository;
+    private final Cache<String, AuthUserSnapshotDto> usersByEmail;
+
+    public UserAuthCacheServiceImpl(UserRepository userRepository,
+                                    @Value("${procurement.cache.users.max-size:10000}") long maxSize,
+                                    @Value("${procurement.cache.users.ttl-minutes:10}") long ttlMinutes) {
+        this.userRepository = userRepository;
+        this.usersByEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public Optional<AuthUserSnapshotDto> findByEmail(String email) {
+        // Unknown e-mails are not cached, so a newly created user can log in immediately
+        return Optional.ofNullable(usersByEmail.get(email, key ->
+                userRepository.findByEmailWithRolesAndDepartment(key).map(UserAuthCacheServiceImpl::toSnapshot).orElse(null)));
+    }
+
+    private static AuthUserSnapshotDto toSnapshot(User user) {
+        Map<String, Integer> roleIdsByName = user.getRoles().stream()
+                .collect(Collectors.toUnmodifiableMap(Role::getRoleName, Role::getRoleId));
+        boolean isProcurementManager = roleIdsByName.containsKey(AdminServiceImpl.PROCUREMENT_MANAGER_ROLE_NAME);
+        boolean isProcurementEmployee = roleIdsByName.containsKey(AdminServiceImpl.EMPLOYEE_ROLE_NAME) &&
+                user.getDepartment() != null &&
+                AdminServiceImpl.PROCUREMENT_DEPARTMENT_NAME.equals(user.getDepartment().getDepartmentName());
+        return new AuthUserSnapshotDto(user.getUserId(), user.getEmail(), user.getPasswordHash(),
+                user.getDepartment() != null ? user.getDepartment().getDepartmentId() : null,
+                roleIdsByName, isProcurementManager || isProcurementEmployee);
+    }
+
+    @Override
+    public void evictUser(Integer userId) {
+        evictNowAndAfterCommit(() -> usersByEmail.asMap().values().removeIf(snapshot -> snapshot.getUserId().equals(userId)));
+        log.debug("Evicted UserID {} from user auth cache", userId);
+    }
+
+    @Override
+    public void evictAll() {
+        evictNowAndAfterCommit(usersByEmail::invalidateAll);
+        log.info("User auth cache cleared");
+    }
+
+    // Evicting again after commit stops a concurrent login from re-caching the pre-update row
+    private void evictNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    @Override
+    public CacheStatsDto getCacheStats() {
+        CacheStats stats = usersByEmail.stats();
+        return new CacheStatsDto("users", usersByEmail.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount());
+    }
+}
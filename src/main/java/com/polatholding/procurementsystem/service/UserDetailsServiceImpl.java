@@ -1,15 +1,13 @@
 package com.polatholding.procurementsystem.service;
 
 import com.polatholding.procurementsystem.config.security.CustomUserDetails; // <-- IMPORT
-import com.polatholding.procurementsystem.model.User;
-import com.polatholding.procurementsystem.repository.UserRepository;
+import com.polatholding.procurementsystem.dto.AuthUserSnapshotDto;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -17,27 +15,30 @@ import java.util.stream.Collectors;
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
 
-    private final UserRepository userRepository;
+    private final UserAuthCacheService userAuthCacheService;
 
-    public UserDetailsServiceImpl(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public UserDetailsServiceImpl(UserAuthCacheService userAuthCacheService) {
+        this.userAuthCacheService = userAuthCacheService;
     }
 
     @Override
-    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
+        AuthUserSnapshotDto user = userAuthCacheService.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
-        Set<GrantedAuthority> authorities = user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getRoleName()))
+        Set<GrantedAuthority> authorities = user.getRoleIdsByName().keySet().stream()
+                .map(roleName -> new SimpleGrantedAuthority("ROLE_" + roleName))
                 .collect(Collectors.toSet());
 
+        // Always a new instance: the authentication manager erases credentials on the one it returns
         return new CustomUserDetails(
                 user.getEmail(),
                 user.getPasswordHash(),
                 authorities,
-                user.getUserId()
+                user.getUserId(),
+                user.getDepartmentId(),
+                user.getRoleIdsByName(),
+                user.isProcurementStaff()
         );
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,14 @@
 package com.polatholding.procurementsystem.service;
 
+import com.polatholding.procurementsystem.dto.DatabaseProbeReportDto;
+import com.polatholding.procurementsystem.dto.StartupStatsDto;
+
 public interface UtilityService {
-    void demonstrateDistinctDatabaseObjectUsage();
-}
\ No newline at end of file
+
+    // Runs every view and UDF probe once and times each call
+    DatabaseProbeReportDto runDatabaseProbe();
+
+    DatabaseProbeReportDto getLastProbeReport();
+
+    StartupStatsDto getStartupStats();
+}
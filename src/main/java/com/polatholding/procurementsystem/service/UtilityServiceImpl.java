@@ -1,114 +1,143 @@
 package com.polatholding.procurementsystem.service;
 
-import com.polatholding.procurementsystem.dto.*;
+import com.polatholding.procurementsystem.dto.DatabaseProbeReportDto;
+import com.polatholding.procurementsystem.dto.DatabaseProbeResultDto;
+import com.polatholding.procurementsystem.dto.RequestSummaryViewDto;
+import com.polatholding.procurementsystem.dto.StartupStatsDto;
 import com.polatholding.procurementsystem.repository.DatabaseHelperRepository;
-import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.lang.management.ManagementFactory;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Exercises the database views and UDFs the helper repository wraps. This used to run in
+ * a @PostConstruct and held up startup; it now runs on demand from the diagnostics
+ * endpoint and, when enabled, once on a background thread after the application is ready.
+ */
 @Service
 public class UtilityServiceImpl implements UtilityService {
 
     private static final Logger log = LoggerFactory.getLogger(UtilityServiceImpl.class);
+
+    // Sample ids used by the single-row probes; a missing row yields "N/A", not a failure
+    private static final int SAMPLE_ID = 1;
+
     private final DatabaseHelperRepository dbHelper;
+    private final boolean probeOnStartup;
+    private final long startupWarnMillis;
 
-    public UtilityServiceImpl(DatabaseHelperRepository dbHelper) {
+    private volatile DatabaseProbeReportDto lastProbeReport;
+    private volatile StartupStatsDto startupStats;
+
+    public UtilityServiceImpl(DatabaseHelperRepository dbHelper,
+                              @Value("${procurement.diagnostics.db-probe.on-startup:true}") boolean probeOnStartup,
+                              @Value("${procurement.diagnostics.startup.warn-ms:30000}") long startupWarnMillis) {
         this.dbHelper = dbHelper;
+        this.probeOnStartup = probeOnStartup;
+        this.startupWarnMillis = startupWarnMillis;
     }
 
-    @PostConstruct
-    public void init() {
-        log.info("UtilityService: Running distinct database object usage demonstration on startup.");
-        demonstrateDistinctDatabaseObjectUsage();
-        log.info("UtilityService: Demonstration complete.");
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        long startupMillis = event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1;
+        long jvmStartMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        boolean overThreshold = startupWarnMillis > 0 && startupMillis > startupWarnMillis;
+        startupStats = new StartupStatsDto(LocalDateTime.now(), startupMillis, jvmStartMillis,
+                startupWarnMillis, overThreshold);
+        if (overThreshold) {
+            log.warn("Application ready in {} ms (JVM uptime {} ms), above the {} ms startup budget",
+                    startupMillis, jvmStartMillis, startupWarnMillis);
+        } else {
+            log.info("Application ready in {} ms (JVM uptime {} ms)", startupMillis, jvmStartMillis);
+        }
+
+        if (probeOnStartup) {
+            Thread.ofPlatform().name("db-probe").daemon(true).start(() -> {
+                DatabaseProbeReportDto report = runDatabaseProbe();
+                log.info("Startup database probe: {} objects in {} ms, {} failed",
+                        report.getProbes().size(), report.getTotalMillis(), report.getFailures());
+            });
+        }
     }
 
     @Override
-    public void demonstrateDistinctDatabaseObjectUsage() {
-        log.info("--- Demonstrating Distinct View Usage ---");
-        try {
-            List<RequestSummaryViewDto> pending = dbHelper.getPendingRequestsViewData();
-            log.info("vw_PendingRequests: Fetched {} records. First: {}", pending.size(), pending.isEmpty() ? "N/A" : pending.get(0).getRequestId());
-
-            List<RequestSummaryViewDto> approved = dbHelper.getApprovedRequestsViewData();
-            log.info("vw_ApprovedRequests: Fetched {} records. First: {}", approved.size(), approved.isEmpty() ? "N/A" : approved.get(0).getRequestId());
-
-            List<RequestSummaryViewDto> rejected = dbHelper.getRejectedRequestsViewData();
-            log.info("vw_RejectedRequests: Fetched {} records. First: {}", rejected.size(), rejected.isEmpty() ? "N/A" : rejected.get(0).getRequestId());
-
-            List<UserWithRoleViewDto> usersWithRoles = dbHelper.getUsersWithRolesViewData();
-            log.info("vw_UsersWithRoles: Fetched {} records. First: {}", usersWithRoles.size(), usersWithRoles.isEmpty() ? "N/A" : usersWithRoles.get(0).getEmail());
-
-            List<ApprovalViewDto> recentApprovals = dbHelper.getRecentApprovalsViewData();
-            log.info("vw_RecentApprovals: Fetched {} records. First: {}", recentApprovals.size(), recentApprovals.isEmpty() ? "N/A" : recentApprovals.get(0).getApprovalId());
-
-            List<DepartmentBudgetViewDto> deptBudgets = dbHelper.getDepartmentBudgetsViewData();
-            log.info("vw_DepartmentBudgets: Fetched {} records. First: {}", deptBudgets.size(), deptBudgets.isEmpty() ? "N/A" : deptBudgets.get(0).getCode());
-
-            List<RequestSummaryViewDto> highValue = dbHelper.getHighValueRequestsViewData();
-            log.info("vw_HighValueRequests: Fetched {} records. First: {}", highValue.size(), highValue.isEmpty() ? "N/A" : highValue.get(0).getRequestId());
-
-            List<RequestSummaryViewDto> returnedForEdit = dbHelper.getRequestsReturnedForEditViewData();
-            log.info("vw_RequestsReturnedForEdit: Fetched {} records. First: {}", returnedForEdit.size(), returnedForEdit.isEmpty() ? "N/A" : returnedForEdit.get(0).getRequestId());
-
-            // The original 2 views used via SPs/direct calls
-            RequestSummaryViewDto summary = dbHelper.getRequestSummary(1); // Assuming RequestID 1 exists
-            log.info("vw_AllRequestSummaries (via getRequestSummary for ID 1): {}", summary != null ? summary.getStatus() : "N/A - Request 1 not found");
-            List<RequestSummaryViewDto> itemsDetail = dbHelper.getRequestItemsDetail(1); // Assuming RequestID 1 exists
-            log.info("vw_RequestItemsDetail (for ID 1): Fetched {} pseudo-item records.", itemsDetail.size());
+    public DatabaseProbeReportDto runDatabaseProbe() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        List<DatabaseProbeResultDto> results = new ArrayList<>();
+        probes().forEach((name, probe) -> results.add(time(name, probe)));
+
+        int failures = (int) results.stream().filter(r -> !r.isSuccess()).count();
+        DatabaseProbeReportDto report = new DatabaseProbeReportDto(startedAt,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), failures, results);
+        lastProbeReport = report;
+        return report;
+    }
 
+    private Map<String, Supplier<Object>> probes() {
+        Map<String, Supplier<Object>> probes = new LinkedHashMap<>();
+        probes.put("vw_PendingRequests", dbHelper::getPendingRequestsViewData);
+        probes.put("vw_ApprovedRequests", dbHelper::getApprovedRequestsViewData);
+        probes.put("vw_RejectedRequests", dbHelper::getRejectedRequestsViewData);
+        probes.put("vw_UsersWithRoles", dbHelper::getUsersWithRolesViewData);
+        probes.put("vw_RecentApprovals", dbHelper::getRecentApprovalsViewData);
+        probes.put("vw_DepartmentBudgets", dbHelper::getDepartmentBudgetsViewData);
+        probes.put("vw_HighValueRequests", dbHelper::getHighValueRequestsViewData);
+        probes.put("vw_RequestsReturnedForEdit", dbHelper::getRequestsReturnedForEditViewData);
+        probes.put("vw_AllRequestSummaries", () -> dbHelper.getRequestSummary(SAMPLE_ID));
+        probes.put("vw_RequestItemsDetail", () -> dbHelper.getRequestItemsDetail(SAMPLE_ID));
+        probes.put("udf_GetRequestStatus", () -> dbHelper.callUdfGetRequestStatus(SAMPLE_ID));
+        probes.put("udf_GetUserFullName", () -> dbHelper.callUdfGetUserFullName(SAMPLE_ID));
+        probes.put("udf_GetDepartmentRequestCount", () -> dbHelper.callUdfGetDepartmentRequestCount(SAMPLE_ID));
+        probes.put("udf_IsHighValueTRY", () -> dbHelper.callUdfIsHighValueTRY(SAMPLE_ID));
+        probes.put("udf_GetApproverRoleForLevel", () -> dbHelper.callUdfGetApproverRoleForLevel(SAMPLE_ID));
+        probes.put("udf_TotalRequestValueForUser", () -> dbHelper.callUdfTotalRequestValueForUser(SAMPLE_ID));
+        probes.put("udf_GetLastApprovalDate", () -> dbHelper.callUdfGetLastApprovalDate(SAMPLE_ID));
+        probes.put("udf_GetRequestItemCount", () -> dbHelper.callUdfGetRequestItemCount(SAMPLE_ID));
+        return probes;
+    }
 
+    private static DatabaseProbeResultDto time(String name, Supplier<Object> probe) {
+        long start = System.nanoTime();
+        try {
+            Object value = probe.get();
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.debug("{}: {} ({} ms)", name, describe(value), elapsed);
+            return new DatabaseProbeResultDto(name, true, describe(value), elapsed, null);
         } catch (Exception e) {
-            log.error("Error during View usage demonstration: {}", e.getMessage());
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.warn("{} probe failed after {} ms: {}", name, elapsed, e.getMessage());
+            return new DatabaseProbeResultDto(name, false, null, elapsed, e.getMessage());
         }
+    }
 
-        log.info("--- Demonstrating Distinct UDF Usage ---");
-        try {
-            // Sample IDs - these might fail if data doesn't exist, but it shows the call.
-            // For robust demo, these IDs should be fetched or known to exist.
-            Integer sampleRequestId = 1;
-            Integer sampleUserId = 1;
-            Integer sampleDepartmentId = 1;
-            Integer sampleApprovalLevel = 1;
-
-            // UDFs already used:
-            // udf_DaysSinceRequest (via getDaysSinceRequest)
-            // udf_CalculateGrossAmount (via calculateGrossAmount)
-            // For the demo, we call them again here to be explicit if needed, or rely on existing calls.
-            // dbHelper.getDaysSinceRequest(sampleRequestId);
-            // dbHelper.calculateGrossAmount(BigDecimal.TEN);
-
-            String status = dbHelper.callUdfGetRequestStatus(sampleRequestId);
-            log.info("udf_GetRequestStatus (Request ID {}): {}", sampleRequestId, status);
-
-            String fullName = dbHelper.callUdfGetUserFullName(sampleUserId);
-            log.info("udf_GetUserFullName (User ID {}): {}", sampleUserId, fullName);
-
-            Integer deptReqCount = dbHelper.callUdfGetDepartmentRequestCount(sampleDepartmentId);
-            log.info("udf_GetDepartmentRequestCount (Dept ID {}): {}", sampleDepartmentId, deptReqCount);
-
-            Boolean isHighVal = dbHelper.callUdfIsHighValueTRY(sampleRequestId);
-            log.info("udf_IsHighValueTRY (Request ID {}): {}", sampleRequestId, isHighVal);
-
-            String approverRole = dbHelper.callUdfGetApproverRoleForLevel(sampleApprovalLevel);
-            log.info("udf_GetApproverRoleForLevel (Level {}): {}", sampleApprovalLevel, approverRole);
-
-            BigDecimal totalUserValue = dbHelper.callUdfTotalRequestValueForUser(sampleUserId);
-            log.info("udf_TotalRequestValueForUser (User ID {}): {}", sampleUserId, totalUserValue);
-
-            LocalDateTime lastApprovalDate = dbHelper.callUdfGetLastApprovalDate(sampleRequestId);
-            log.info("udf_GetLastApprovalDate (Request ID {}): {}", sampleRequestId, lastApprovalDate);
+    private static String describe(Object value) {
+        if (value == null) return "N/A";
+        if (value instanceof Collection<?> rows) return rows.size() + " rows";
+        if (value instanceof RequestSummaryViewDto) return "1 row";
+        return String.valueOf(value);
+    }
 
-            Integer itemCount = dbHelper.callUdfGetRequestItemCount(sampleRequestId);
-            log.info("udf_GetRequestItemCount (Request ID {}): {}", sampleRequestId, itemCount);
+    @Override
+    public DatabaseProbeReportDto getLastProbeReport() {
+        return lastProbeReport;
+    }
 
-        } catch (Exception e) {
-            log.error("Error during UDF usage demonstration (sample data might be missing for IDs 1): {}", e.getMessage());
-        }
+    @Override
+    public StartupStatsDto getStartupStats() {
+        return startupStats;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,10 @@
+-- Supports the keyset-paginated dashboard listing (ORDER BY CreatedAt DESC, RequestID DESC).
+-- Filters on Status/DepartmentID/CurrencyID/CreatedByUserID are residual predicates on the seek.
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_PurchaseRequests_CreatedAt_RequestID'
+               AND object_id = OBJECT_ID('dbo.PurchaseRequests'))
+BEGIN
+    CREATE NONCLUSTERED INDEX IX_PurchaseRequests_CreatedAt_RequestID
+        ON dbo.PurchaseRequests (CreatedAt DESC, RequestID DESC)
+        INCLUDE (Status, DepartmentID, CurrencyID, CreatedByUserID, NetAmount);
+END
+GO
@@ -0,0 +1,9 @@
+-- Supports the single-query approval inbox (Status = 'Pending' by CurrentApprovalLevel, oldest first).
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_PurchaseRequests_Status_Level_CreatedAt'
+               AND object_id = OBJECT_ID('dbo.PurchaseRequests'))
+BEGIN
+    CREATE NONCLUSTERED INDEX IX_PurchaseRequests_Status_Level_CreatedAt
+        ON dbo.PurchaseRequests (Status, CurrentApprovalLevel, CreatedAt, RequestID)
+        INCLUDE (DepartmentID, CurrencyID, CreatedByUserID, NetAmount);
+END
+GO
@@ -0,0 +1,9 @@
+-- Covers the budget status aggregate (approved NetAmount by BudgetCodeID, CurrencyID and day).
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_PurchaseRequests_Status_BudgetCode'
+               AND object_id = OBJECT_ID('dbo.PurchaseRequests'))
+BEGIN
+    CREATE NONCLUSTERED INDEX IX_PurchaseRequests_Status_BudgetCode
+        ON dbo.PurchaseRequests (Status, BudgetCodeID, CurrencyID)
+        INCLUDE (CreatedAt, NetAmount);
+END
+GO
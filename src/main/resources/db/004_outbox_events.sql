@@ -0,0 +1,25 @@
+-- Transactional outbox for approval side effects (notifications and request history).
+IF OBJECT_ID('dbo.OutboxEvents', 'U') IS NULL
+BEGIN
+    CREATE TABLE dbo.OutboxEvents (
+        OutboxEventID BIGINT IDENTITY(1,1) NOT NULL PRIMARY KEY,
+        EventType     NVARCHAR(50)   NOT NULL,
+        Payload       NVARCHAR(MAX)  NOT NULL,
+        CreatedAt     DATETIME2      NOT NULL,
+        ProcessedAt   DATETIME2      NULL,
+        Attempts      INT            NOT NULL DEFAULT 0,
+        LastError     NVARCHAR(1000) NULL
+    );
+END
+GO
+
+-- Keeps the dispatcher's claim query and the lag metric on a small index of unprocessed rows.
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_OutboxEvents_Pending'
+               AND object_id = OBJECT_ID('dbo.OutboxEvents'))
+BEGIN
+    CREATE NONCLUSTERED INDEX IX_OutboxEvents_Pending
+        ON dbo.OutboxEvents (OutboxEventID)
+        INCLUDE (Attempts, CreatedAt)
+        WHERE ProcessedAt IS NULL;
+END
+GO
@@ -0,0 +1,37 @@
+-- Supports the paginated audit log (ORDER BY HistoryID DESC) for each of its equality filters.
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_RequestHistory_RequestID_HistoryID'
+               AND object_id = OBJECT_ID('dbo.RequestHistory'))
+BEGIN
+    CREATE NONCLUSTERED INDEX IX_RequestHistory_RequestID_HistoryID
+        ON dbo.RequestHistory (RequestID, HistoryID DESC)
+        INCLUDE (UserID, Action, EventDate);
+END
+GO
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_RequestHistory_UserID_HistoryID'
+               AND object_id = OBJECT_ID('dbo.RequestHistory'))
+BEGIN
+    CREATE NONCLUSTERED INDEX IX_RequestHistory_UserID_HistoryID
+        ON dbo.RequestHistory (UserID, HistoryID DESC)
+        INCLUDE (RequestID, Action, EventDate);
+END
+GO
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_RequestHistory_Action_HistoryID'
+               AND object_id = OBJECT_ID('dbo.RequestHistory'))
+BEGIN
+    CREATE NONCLUSTERED INDEX IX_RequestHistory_Action_HistoryID
+        ON dbo.RequestHistory (Action, HistoryID DESC)
+        INCLUDE (RequestID, UserID, EventDate);
+END
+GO
+
+-- Date-range filters without any of the above
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_RequestHistory_EventDate'
+               AND object_id = OBJECT_ID('dbo.RequestHistory'))
+BEGIN
+    CREATE NONCLUSTERED INDEX IX_RequestHistory_EventDate
+        ON dbo.RequestHistory (EventDate)
+        INCLUDE (RequestID, UserID, Action);
+END
+GO
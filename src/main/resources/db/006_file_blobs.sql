@@ -0,0 +1,36 @@
+-- Content-addressed attachment store: one row (and one file on disk) per distinct SHA-256.
+IF OBJECT_ID('dbo.FileBlobs', 'U') IS NULL
+BEGIN
+    CREATE TABLE dbo.FileBlobs (
+        BlobHash    CHAR(64)      NOT NULL PRIMARY KEY,
+        StoragePath NVARCHAR(200) NOT NULL,
+        SizeBytes   BIGINT        NOT NULL,
+        RefCount    INT           NOT NULL DEFAULT 0,
+        CreatedAt   DATETIME2     NOT NULL
+    );
+END
+GO
+
+-- Files uploaded before the blob store keep BlobHash NULL and their original FilePath.
+IF COL_LENGTH('dbo.Files', 'BlobHash') IS NULL
+BEGIN
+    ALTER TABLE dbo.Files ADD BlobHash CHAR(64) NULL
+        CONSTRAINT FK_Files_FileBlobs FOREIGN KEY REFERENCES dbo.FileBlobs (BlobHash);
+END
+GO
+
+IF COL_LENGTH('dbo.Files', 'FileName') IS NULL
+BEGIN
+    ALTER TABLE dbo.Files ADD FileName NVARCHAR(255) NULL;
+END
+GO
+
+-- Garbage collection checks each blob for remaining Files rows
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_Files_BlobHash'
+               AND object_id = OBJECT_ID('dbo.Files'))
+BEGIN
+    CREATE NONCLUSTERED INDEX IX_Files_BlobHash
+        ON dbo.Files (BlobHash)
+        WHERE BlobHash IS NOT NULL;
+END
+GO
@@ -0,0 +1,32 @@
+-- Append-only record of every budget movement; BudgetCodes.BudgetAmount is the running balance.
+IF OBJECT_ID('dbo.BudgetLedger', 'U') IS NULL
+BEGIN
+    CREATE TABLE dbo.BudgetLedger (
+        LedgerEntryID   BIGINT IDENTITY(1,1) NOT NULL PRIMARY KEY,
+        BudgetCodeID    INT            NOT NULL REFERENCES dbo.BudgetCodes (BudgetCodeID),
+        RequestID       INT            NOT NULL REFERENCES dbo.PurchaseRequests (RequestID),
+        EntryType       NVARCHAR(20)   NOT NULL,
+        Amount          DECIMAL(18, 2) NOT NULL,
+        CreatedByUserID INT            NULL REFERENCES dbo.Users (UserID),
+        CreatedAt       DATETIME2      NOT NULL
+    );
+END
+GO
+
+-- A request can consume its budget only once, even if two approvals race on it
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'UX_BudgetLedger_Request_EntryType'
+               AND object_id = OBJECT_ID('dbo.BudgetLedger'))
+BEGIN
+    CREATE UNIQUE NONCLUSTERED INDEX UX_BudgetLedger_Request_EntryType
+        ON dbo.BudgetLedger (RequestID, EntryType);
+END
+GO
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_BudgetLedger_BudgetCodeID'
+               AND object_id = OBJECT_ID('dbo.BudgetLedger'))
+BEGIN
+    CREATE NONCLUSTERED INDEX IX_BudgetLedger_BudgetCodeID
+        ON dbo.BudgetLedger (BudgetCodeID, LedgerEntryID)
+        INCLUDE (EntryType, Amount);
+END
+GO
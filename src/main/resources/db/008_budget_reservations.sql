@@ -0,0 +1,45 @@
+-- Soft reservations add RESERVE/RELEASE rows per request to BudgetLedger, so only CONSUME stays
+-- unique per request.
+IF EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'UX_BudgetLedger_Request_EntryType'
+           AND object_id = OBJECT_ID('dbo.BudgetLedger'))
+BEGIN
+    DROP INDEX UX_BudgetLedger_Request_EntryType ON dbo.BudgetLedger;
+END
+GO
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'UX_BudgetLedger_Request_Consume'
+               AND object_id = OBJECT_ID('dbo.BudgetLedger'))
+BEGIN
+    CREATE UNIQUE NONCLUSTERED INDEX UX_BudgetLedger_Request_Consume
+        ON dbo.BudgetLedger (RequestID)
+        WHERE EntryType = 'CONSUME';
+END
+GO
+
+-- Outstanding reservation of one request (release on reject/return, move on resubmit)
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_BudgetLedger_RequestID'
+               AND object_id = OBJECT_ID('dbo.BudgetLedger'))
+BEGIN
+    CREATE NONCLUSTERED INDEX IX_BudgetLedger_RequestID
+        ON dbo.BudgetLedger (RequestID)
+        INCLUDE (BudgetCodeID, EntryType, Amount);
+END
+GO
+
+-- Requests already Pending when reservations were introduced reserve their TRY value (net amount
+-- at the latest rate on or before the request date, as ExchangeRateService converts it). Requests
+-- that already hold ledger rows are skipped, so the script can be re-run.
+INSERT INTO dbo.BudgetLedger (BudgetCodeID, RequestID, EntryType, Amount, CreatedByUserID, CreatedAt)
+SELECT pr.BudgetCodeID, pr.RequestID, 'RESERVE',
+       CAST(ROUND(pr.NetAmount * CASE WHEN c.CurrencyCode = 'TRY' THEN 1 ELSE rate.Rate END, 2) AS DECIMAL(18, 2)),
+       NULL, SYSDATETIME()
+FROM dbo.PurchaseRequests pr
+JOIN dbo.Currencies c ON c.CurrencyID = pr.CurrencyID
+OUTER APPLY (SELECT TOP 1 er.Rate
+             FROM dbo.ExchangeRates er
+             WHERE er.CurrencyID = pr.CurrencyID AND er.[Date] <= CAST(pr.CreatedAt AS DATE)
+             ORDER BY er.[Date] DESC, er.ExchangeRateID DESC) rate
+WHERE pr.Status = 'Pending'
+  AND (c.CurrencyCode = 'TRY' OR rate.Rate IS NOT NULL)
+  AND NOT EXISTS (SELECT 1 FROM dbo.BudgetLedger l WHERE l.RequestID = pr.RequestID);
+GO
@@ -0,0 +1,9 @@
+-- Lets the retention purge find delivered events by delivery time without scanning the table.
+IF NOT EXISTS (SELECT 1 FROM sys.indexes WHERE name = 'IX_OutboxEvents_ProcessedAt'
+               AND object_id = OBJECT_ID('dbo.OutboxEvents'))
+BEGIN
+    CREATE NONCLUSTERED INDEX IX_OutboxEvents_ProcessedAt
+        ON dbo.OutboxEvents (ProcessedAt)
+        WHERE ProcessedAt IS NOT NULL;
+END
+GO
@@ -45,6 +45,21 @@ document.addEventListener('DOMContentLoaded', function () {
         }
     }
 
+    // Sidebar "Approvals" badge; the element only exists for users who can approve
+    async function fetchApprovalCount() {
+        const approvalCountBadge = document.getElementById('approvalCountBadge');
+        if (!approvalCountBadge) return;
+        try {
+            const response = await fetch('/api/approvals/count');
+            if (!response.ok) return;
+            const count = await response.json();
+            approvalCountBadge.textContent = count > 99 ? '99+' : count;
+            approvalCountBadge.style.display = count > 0 ? 'inline-block' : 'none';
+        } catch (error) {
+            console.error('Error fetching approval count:', error);
+        }
+    }
+
     function updateBadge(count) {
         if (notificationCountBadge) {
             if (count > 0) {
@@ -209,9 +224,22 @@ document.addEventListener('DOMContentLoaded', function () {
         }
     });
 
-    // Initial fetch of unread count
-    fetchUnreadCount();
+    fetchApprovalCount();
 
-    // Optional: Poll for new notifications periodically (e.g., every 30 seconds)
-    // setInterval(fetchUnreadCount, 30000);
+    // Server push: the stream sends the current unread count on connect and again whenever it changes.
+    // EventSource reconnects by itself; browsers without it fall back to a single fetch.
+    if (window.EventSource) {
+        const eventSource = new EventSource(`${API_BASE_URL}/stream`);
+        eventSource.addEventListener('unread-count', function (event) {
+            updateBadge(JSON.parse(event.data));
+        });
+        eventSource.addEventListener('notification', function () {
+            if (notificationDropdown && notificationDropdown.classList.contains('show')) {
+                fetchRecentNotifications();
+            }
+        });
+        window.addEventListener('beforeunload', () => eventSource.close());
+    } else {
+        fetchUnreadCount();
+    }
 });
\ No newline at end of file
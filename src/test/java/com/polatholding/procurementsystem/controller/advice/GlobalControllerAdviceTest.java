@@ -0,0 +1,47 @@
+package com.polatholding.procurementsystem.controller.advice;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.mvc.support.RedirectAttributesModelMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Uploads rejected by the container go back to the form they were posted from, never to
+ * another site named in the Referer header.
+ */
+class GlobalControllerAdviceTest {
+
+    private final GlobalControllerAdvice advice = new GlobalControllerAdvice(DataSize.ofMegabytes(25), DataSize.ofMegabytes(100));
+
+    @Test
+    void oversizeUploadReturnsToTheFormWithAMessage() {
+        RedirectAttributesModelMap redirectAttributes = new RedirectAttributesModelMap();
+
+        String view = advice.handleMaxUploadSizeExceeded(post("http://localhost/requests/42/edit?tab=files"), redirectAttributes);
+
+        assertEquals("redirect:/requests/42/edit?tab=files", view);
+        assertEquals("Attachments exceed the limit of 25 MB per file and 100 MB per request",
+                redirectAttributes.getFlashAttributes().get("errorMessage"));
+    }
+
+    @Test
+    void foreignOrMissingRefererFallsBackToTheDashboard() {
+        RedirectAttributesModelMap redirectAttributes = new RedirectAttributesModelMap();
+
+        assertEquals("redirect:/dashboard", advice.handleMaxUploadSizeExceeded(post("https://evil.example/requests/new"), redirectAttributes));
+        assertEquals("redirect:/dashboard", advice.handleMaxUploadSizeExceeded(post("not a uri"), redirectAttributes));
+        assertEquals("redirect:/dashboard", advice.handleMaxUploadSizeExceeded(post(null), redirectAttributes));
+    }
+
+    private static MockHttpServletRequest post(String referer) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/requests/save");
+        request.setServerName("localhost");
+        if (referer != null) {
+            request.addHeader(HttpHeaders.REFERER, referer);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,178 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.config.security.CustomUserDetails;
+import com.polatholding.procurementsystem.model.*;
+import com.polatholding.procurementsystem.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Decisions through the HTTP endpoints against a real schema: who may decide, and what a
+ * decision leaves behind when it is refused.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ApprovalDecisionTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private TestFixtures fixtures;
+    @Autowired private UserRepository userRepository;
+    @Autowired private BudgetCodeRepository budgetCodeRepository;
+    @Autowired private PurchaseRequestRepository purchaseRequestRepository;
+    @Autowired private UserAuthCacheService userAuthCacheService;
+
+    private Role employeeRole;
+    private Role procurementManagerRole;
+    private Department department;
+    private User employee;
+    private User procurementManager;
+
+    @BeforeEach
+    void seed() {
+        fixtures.approvalChain();
+        employeeRole = fixtures.role("Employee");
+        procurementManagerRole = fixtures.role("ProcurementManager");
+        department = fixtures.department();
+        employee = fixtures.user("employee", department, employeeRole);
+        procurementManager = fixtures.user("pm", department, procurementManagerRole);
+    }
+
+    @Test
+    void revokedRoleStopsDecisionsWithinTheSameSession() throws Exception {
+        Integer requestId = savePendingRequest(saveBudgetCode("100000.00"), "1000.00", 2);
+        // Signed in while still a Procurement Manager; the session principal keeps that role
+        CustomUserDetails principal = pmPrincipal();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User user = userRepository.findById(procurementManager.getUserId()).orElseThrow();
+            user.setRoles(new HashSet<>(Set.of(employeeRole)));
+            userRepository.save(user);
+            userAuthCacheService.evictUser(user.getUserId()); // as AdminService.updateUser does
+        });
+
+        mockMvc.perform(post("/approvals/process")
+                        .param("requestId", String.valueOf(requestId))
+                        .param("decision", "approve")
+                        .with(user(principal))
+                        .with(csrf()))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(flash().attributeExists("errorMessage"));
+
+        PurchaseRequest request = purchaseRequestRepository.findById(requestId).orElseThrow();
+        assertEquals("Pending", request.getStatus());
+        assertEquals(2, request.getCurrentApprovalLevel());
+    }
+
+    @Test
+    void bulkApprovalCommitsFundedItemsWhenBudgetRunsOut() throws Exception {
+        Integer budgetCodeId = saveBudgetCode("1500.00");
+        Integer funded = savePendingRequest(budgetCodeId, "1000.00", 2);
+        Integer unfunded = savePendingRequest(budgetCodeId, "1000.00", 2);
+
+        mockMvc.perform(post("/api/approvals/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"requestIds\":[" + funded + "," + unfunded + "],\"decision\":\"approve\"}")
+                        .with(user(pmPrincipal()))
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.items[0].success").value(true))
+                .andExpect(jsonPath("$.items[1].success").value(false))
+                .andExpect(jsonPath("$.items[1].message").value(containsString("Insufficient funds")));
+
+        assertEquals("Approved", purchaseRequestRepository.findById(funded).orElseThrow().getStatus());
+        PurchaseRequest refused = purchaseRequestRepository.findById(unfunded).orElseThrow();
+        assertEquals("Pending", refused.getStatus());
+        assertEquals(2, refused.getCurrentApprovalLevel());
+        assertEquals(0, new BigDecimal("500.00").compareTo(budgetCodeRepository.findBudgetAmount(budgetCodeId)));
+    }
+
+    @Test
+    void bulkApprovalCommitsSuccessesAlongsideEachKindOfItemFailure() throws Exception {
+        Integer budgetCodeId = saveBudgetCode("100000.00");
+        Integer approvable = savePendingRequest(budgetCodeId, "1000.00", 2);
+        Integer directorLevel = savePendingRequest(budgetCodeId, "1000.00", 3);
+        Integer unfunded = savePendingRequest(saveBudgetCode("100.00"), "1000.00", 2);
+        Integer alreadyApproved = fixtures.request(employee, budgetCodeId, "1000.00", 2, "Approved");
+        int missing = Integer.MAX_VALUE;
+
+        mockMvc.perform(post("/api/approvals/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"requestIds\":[" + approvable + "," + directorLevel + "," + unfunded + ","
+                                + alreadyApproved + "," + missing + "],\"decision\":\"approve\"}")
+                        .with(user(pmPrincipal()))
+                        .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(4))
+                .andExpect(jsonPath("$.items[0].success").value(true))
+                .andExpect(jsonPath("$.items[0].status").value("Approved"))
+                .andExpect(jsonPath("$.items[1].success").value(false))
+                .andExpect(jsonPath("$.items[1].status").value("Pending"))
+                .andExpect(jsonPath("$.items[2].success").value(false))
+                .andExpect(jsonPath("$.items[2].message").value(containsString("Insufficient funds")))
+                .andExpect(jsonPath("$.items[3].success").value(false))
+                .andExpect(jsonPath("$.items[3].message").value("Request is not pending"))
+                .andExpect(jsonPath("$.items[4].success").value(false))
+                .andExpect(jsonPath("$.items[4].message").value("Purchase Request not found"));
+
+        assertEquals("Approved", purchaseRequestRepository.findById(approvable).orElseThrow().getStatus());
+        assertEquals(0, new BigDecimal("99000.00").compareTo(budgetCodeRepository.findBudgetAmount(budgetCodeId)));
+        PurchaseRequest denied = purchaseRequestRepository.findById(directorLevel).orElseThrow();
+        assertEquals("Pending", denied.getStatus());
+        assertEquals(3, denied.getCurrentApprovalLevel());
+        assertEquals("Pending", purchaseRequestRepository.findById(unfunded).orElseThrow().getStatus());
+    }
+
+    @Test
+    void bulkDecisionRejectsAnInvalidBatchWithAStructuredError() throws Exception {
+        Integer requestId = savePendingRequest(saveBudgetCode("100000.00"), "1000.00", 2);
+
+        mockMvc.perform(post("/api/approvals/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"requestIds\":[" + requestId + "],\"decision\":\"escalate\"}")
+                        .with(user(pmPrincipal()))
+                        .with(csrf()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.message").value("Unknown decision: escalate"));
+
+        assertEquals("Pending", purchaseRequestRepository.findById(requestId).orElseThrow().getStatus());
+    }
+
+    private CustomUserDetails pmPrincipal() {
+        return TestFixtures.principal(procurementManager, procurementManagerRole);
+    }
+
+    private Integer saveBudgetCode(String amount) {
+        return fixtures.budgetCode(department, amount);
+    }
+
+    private Integer savePendingRequest(Integer budgetCodeId, String netAmount, int level) {
+        return fixtures.request(employee, budgetCodeId, netAmount, level, "Pending");
+    }
+}
@@ -0,0 +1,189 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.config.security.CustomUserDetails;
+import com.polatholding.procurementsystem.model.*;
+import com.polatholding.procurementsystem.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.flash;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements one approval decision issues. If a test fails after a change,
+ * check the listed statements before raising the expected count.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ApprovalQueryCountTest {
+
+    // Request load (decision fetch plan), Approvals insert, two OutboxEvents inserts, PurchaseRequests
+    // update. No Users reads (approver, creator, creator's roles or manager) and no ApprovalSteps read.
+    private static final int EXPECTED_STATEMENTS_PER_APPROVAL = 5;
+    // As above plus the reservation lookup that releases whatever the request holds
+    private static final int EXPECTED_STATEMENTS_PER_REJECTION = 6;
+    private static final int EXPECTED_STATEMENTS_PER_RETURN = 6;
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private TestFixtures fixtures;
+    @Autowired private PurchaseRequestRepository purchaseRequestRepository;
+    @Autowired private OutboxEventRepository outboxEventRepository;
+    @Autowired private UserAuthCacheService userAuthCacheService;
+
+    private User manager;
+    private Role managerRole;
+    private Integer requestId;
+
+    @BeforeEach
+    void seed() {
+        outboxEventRepository.deleteAll();
+        // Level 1 must lead to a pending level 2, so the whole chain is seeded
+        fixtures.approvalChain();
+        managerRole = fixtures.role("Manager");
+        Department department = fixtures.department();
+        manager = fixtures.user("manager", department, managerRole);
+        User employee = fixtures.user("employee", department, fixtures.role("Employee"));
+        fixtures.setManager(department, manager);
+        requestId = fixtures.request(employee, fixtures.budgetCode(department, "100000.00"), "1000.00", 1, "Pending");
+        // Login fills the user auth cache; decisions read the acting user's roles from it
+        userAuthCacheService.findByEmail(manager.getEmail());
+    }
+
+    @Test
+    void departmentManagerApprovalIssuesFixedNumberOfStatements() throws Exception {
+        List<String> statements = StatementCounter.record(() ->
+                mockMvc.perform(post("/approvals/process")
+                                .param("requestId", String.valueOf(requestId))
+                                .param("decision", "approve")
+                                .with(user(managerPrincipal()))
+                                .with(csrf()))
+                        .andExpect(status().is3xxRedirection())
+                        .andExpect(flash().attributeExists("successMessage")));
+
+        assertEquals(EXPECTED_STATEMENTS_PER_APPROVAL, statements.size(), "Statements issued: " + statements);
+        assertEquals(2, purchaseRequestRepository.findById(requestId).orElseThrow().getCurrentApprovalLevel());
+    }
+
+    @Test
+    void rejectionIssuesFixedNumberOfStatements() throws Exception {
+        List<String> statements = StatementCounter.record(() ->
+                mockMvc.perform(post("/approvals/process")
+                                .param("requestId", String.valueOf(requestId))
+                                .param("decision", "reject")
+                                .param("rejectReason", "Over budget")
+                                .with(user(managerPrincipal()))
+                                .with(csrf()))
+                        .andExpect(status().is3xxRedirection())
+                        .andExpect(flash().attributeExists("successMessage")));
+
+        assertEquals(EXPECTED_STATEMENTS_PER_REJECTION, statements.size(), "Statements issued: " + statements);
+        assertEquals("Rejected", purchaseRequestRepository.findById(requestId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void returnForEditIssuesFixedNumberOfStatements() throws Exception {
+        List<String> statements = StatementCounter.record(() ->
+                mockMvc.perform(post("/approvals/return")
+                                .param("requestId", String.valueOf(requestId))
+                                .param("comments", "Add a quote")
+                                .with(user(managerPrincipal()))
+                                .with(csrf()))
+                        .andExpect(status().is3xxRedirection())
+                        .andExpect(flash().attributeExists("successMessage")));
+
+        assertEquals(EXPECTED_STATEMENTS_PER_RETURN, statements.size(), "Statements issued: " + statements);
+        assertEquals("Returned for Edit", purchaseRequestRepository.findById(requestId).orElseThrow().getStatus());
+    }
+
+    private CustomUserDetails managerPrincipal() {
+        return TestFixtures.principal(manager, managerRole);
+    }
+
+    @TestConfiguration
+    static class StatementCounterConfig {
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof StatementCounter)
+                            ? new StatementCounter(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    // Records the SQL prepared on the recording thread only, so background dispatchers do not skew the count
+    static class StatementCounter extends DelegatingDataSource {
+
+        private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+        StatementCounter(DataSource target) {
+            super(target);
+        }
+
+        interface Action {
+            void run() throws Exception;
+        }
+
+        static List<String> record(Action action) throws Exception {
+            List<String> statements = new ArrayList<>();
+            RECORDED.set(statements);
+            try {
+                action.run();
+            } finally {
+                RECORDED.remove();
+            }
+            return statements;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password));
+        }
+
+        private static Connection counting(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        List<String> statements = RECORDED.get();
+                        if (statements != null && (method.getName().equals("prepareStatement") || method.getName().equals("prepareCall"))) {
+                            statements.add((String) args[0]);
+                        } else if (statements != null && method.getName().equals("createStatement")) {
+                            statements.add("<statement>");
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.model.ApprovalStep;
+import com.polatholding.procurementsystem.model.Role;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static com.polatholding.procurementsystem.service.AdminServiceImpl.*;
+import static com.polatholding.procurementsystem.service.ApprovalWorkflow.FINAL_LEVEL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The role matrix the compiled table encodes, on the production chain: department manager,
+ * procurement manager, then director for high-value requests only.
+ */
+class ApprovalWorkflowTest {
+
+    private static final BigDecimal THRESHOLD = new BigDecimal("1000000");
+
+    private final ApprovalWorkflow workflow = compile(
+            step(1, MANAGER_ROLE_NAME), step(2, PROCUREMENT_MANAGER_ROLE_NAME), step(3, DIRECTOR_ROLE_NAME));
+
+    @Test
+    void entryLevelSkipsTheStepsTheSubmittersRolesCover() {
+        assertEntry(1, 1, EMPLOYEE_ROLE_NAME);
+        assertEntry(2, 2, MANAGER_ROLE_NAME);
+        assertEntry(FINAL_LEVEL, 3, PROCUREMENT_MANAGER_ROLE_NAME);
+        assertEntry(FINAL_LEVEL, FINAL_LEVEL, DIRECTOR_ROLE_NAME);
+    }
+
+    @Test
+    void financeOfficerSkipsOnlyTheDepartmentReview() {
+        assertEntry(2, 2, FINANCE_ROLE_NAME);
+        assertResubmission(2, 2, FINANCE_ROLE_NAME);
+    }
+
+    @Test
+    void resubmissionNeverApprovesItself() {
+        assertResubmission(1, 1, EMPLOYEE_ROLE_NAME);
+        assertResubmission(2, 2, MANAGER_ROLE_NAME);
+        // Would auto-approve when low-value, so the edit goes back through the department review
+        assertResubmission(1, 3, PROCUREMENT_MANAGER_ROLE_NAME);
+    }
+
+    @Test
+    void directorEditingTheirOwnRequestRestartsAfterWhatTheyReview() {
+        assertResubmission(1, 1, DIRECTOR_ROLE_NAME);
+        // A director who also manages the department skips that review only
+        assertResubmission(2, 2, DIRECTOR_ROLE_NAME, MANAGER_ROLE_NAME);
+        assertTrue(workflow.isFinalAuthority(List.of(DIRECTOR_ROLE_NAME)));
+        assertFalse(workflow.isFinalAuthority(List.of(PROCUREMENT_MANAGER_ROLE_NAME)));
+    }
+
+    @Test
+    void highValueRequestsAloneReachTheDirector() {
+        assertTrue(workflow.isHighValue(new BigDecimal("1000000.01")));
+        assertFalse(workflow.isHighValue(THRESHOLD));
+
+        assertEquals(2, workflow.nextLevel(1, false));
+        assertEquals(2, workflow.nextLevel(1, true));
+        assertEquals(FINAL_LEVEL, workflow.nextLevel(2, false));
+        assertEquals(3, workflow.nextLevel(2, true));
+        assertEquals(FINAL_LEVEL, workflow.nextLevel(3, true));
+        assertFalse(workflow.nextLevelDependsOnValue(1));
+        assertTrue(workflow.nextLevelDependsOnValue(2));
+        assertTrue(workflow.getStep(1).isDepartmentManagerStep());
+        assertTrue(workflow.getStep(3).isHighValueOnly());
+        assertThrows(IllegalStateException.class, () -> workflow.nextLevel(4, false));
+    }
+
+    @Test
+    void unusableStepTablesAreRefused() {
+        assertThrows(IllegalStateException.class, () -> compile(step(1, MANAGER_ROLE_NAME), step(1, DIRECTOR_ROLE_NAME)));
+        assertThrows(IllegalStateException.class, () -> compile(step(FINAL_LEVEL, DIRECTOR_ROLE_NAME)));
+        // No steps must not mean every request is approved on submission
+        assertThrows(IllegalStateException.class, () -> compile().entryLevel(List.of(EMPLOYEE_ROLE_NAME), false));
+    }
+
+    private void assertEntry(int lowValue, int highValue, String... roles) {
+        assertEquals(lowValue, workflow.entryLevel(List.of(roles), false), "low-value entry for " + List.of(roles));
+        assertEquals(highValue, workflow.entryLevel(List.of(roles), true), "high-value entry for " + List.of(roles));
+    }
+
+    private void assertResubmission(int lowValue, int highValue, String... roles) {
+        assertEquals(lowValue, workflow.resubmissionLevel(List.of(roles), false), "low-value resubmission for " + List.of(roles));
+        assertEquals(highValue, workflow.resubmissionLevel(List.of(roles), true), "high-value resubmission for " + List.of(roles));
+    }
+
+    private static ApprovalWorkflow compile(ApprovalStep... steps) {
+        return ApprovalWorkflow.compile(List.of(steps), THRESHOLD, Set.of(DIRECTOR_ROLE_NAME), MANAGER_ROLE_NAME, Set.of(FINANCE_ROLE_NAME));
+    }
+
+    private static ApprovalStep step(int stepOrder, String roleName) {
+        Role role = new Role();
+        role.setRoleId(stepOrder);
+        role.setRoleName(roleName);
+        ApprovalStep step = new ApprovalStep();
+        step.setApprovalStepId(stepOrder);
+        step.setStepOrder(stepOrder);
+        step.setRequiredRole(role);
+        return step;
+    }
+}
@@ -0,0 +1,94 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.model.BudgetLedgerEntry;
+import com.polatholding.procurementsystem.repository.BudgetCodeRepository;
+import com.polatholding.procurementsystem.repository.BudgetLedgerRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Hammers one budget code from many threads. The balance must never go negative and must
+ * match the ledger exactly, whatever the interleaving.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BudgetConsumptionStressTest {
+
+    private static final Logger log = LoggerFactory.getLogger(BudgetConsumptionStressTest.class);
+
+    private static final int THREADS = 64;
+    private static final int DECISIONS_PER_THREAD = 20;
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+    // Covers exactly 500 of the 1280 attempts
+    private static final BigDecimal BUDGET = new BigDecimal("5000.00");
+
+    @Autowired private BudgetService budgetService;
+    @Autowired private BudgetCodeRepository budgetCodeRepository;
+    @Autowired private BudgetLedgerRepository budgetLedgerRepository;
+    @Autowired private TestFixtures fixtures;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentConsumptionNeverOverspends() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Integer budgetCodeId = fixtures.budgetCode(fixtures.department(), BUDGET.toPlainString());
+
+        AtomicInteger nextRequestId = new AtomicInteger(1_000_000);
+        AtomicInteger consumed = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < DECISIONS_PER_THREAD; i++) {
+                    int requestId = nextRequestId.incrementAndGet();
+                    if (tx.execute(status -> budgetService.consumeForRequest(budgetCodeId, requestId, AMOUNT, null))) {
+                        consumed.incrementAndGet();
+                    } else {
+                        refused.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        pool.shutdown();
+
+        int attempts = THREADS * DECISIONS_PER_THREAD;
+        log.info("Budget stress: {} decisions from {} threads in {} ms ({} decisions/s), {} consumed, {} refused",
+                attempts, THREADS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                String.format("%.0f", attempts / (elapsedNanos / 1e9)), consumed.get(), refused.get());
+
+        int expected = BUDGET.divide(AMOUNT).intValue();
+        assertEquals(expected, consumed.get());
+        assertEquals(attempts - expected, refused.get());
+        assertEquals(0, BigDecimal.ZERO.compareTo(budgetCodeRepository.findBudgetAmount(budgetCodeId)));
+        assertEquals(0, BUDGET.compareTo(budgetLedgerRepository.sumAmount(budgetCodeId, BudgetLedgerEntry.TYPE_CONSUME)));
+    }
+}
@@ -0,0 +1,185 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.dto.PurchaseRequestFormDto;
+import com.polatholding.procurementsystem.dto.RequestItemFormDto;
+import com.polatholding.procurementsystem.model.BudgetLedgerEntry;
+import com.polatholding.procurementsystem.model.Department;
+import com.polatholding.procurementsystem.model.User;
+import com.polatholding.procurementsystem.repository.BudgetCodeRepository;
+import com.polatholding.procurementsystem.repository.BudgetLedgerRepository;
+import com.polatholding.procurementsystem.repository.PurchaseRequestRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Soft reservations through the real submit, edit and decision flows: what each step holds
+ * against the budget code, and that the in-memory totals agree with the ledger.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BudgetReservationTest {
+
+    @Autowired private TestFixtures fixtures;
+    @Autowired private PurchaseRequestService purchaseRequestService;
+    @Autowired private ApprovalService approvalService;
+    @Autowired private BudgetReservationService budgetReservationService;
+    @Autowired private BudgetLedgerRepository budgetLedgerRepository;
+    @Autowired private BudgetCodeRepository budgetCodeRepository;
+    @Autowired private PurchaseRequestRepository purchaseRequestRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    private Department department;
+    private User employee;
+    private User manager;
+    private User procurementManager;
+    private Integer supplierId;
+    private Integer unitId;
+
+    @BeforeEach
+    void seed() {
+        fixtures.approvalChain();
+        department = fixtures.department();
+        employee = fixtures.user("employee", department, fixtures.role("Employee"));
+        manager = fixtures.user("manager", department, fixtures.role("Manager"));
+        procurementManager = fixtures.user("pm", department, fixtures.role("ProcurementManager"));
+        fixtures.setManager(department, manager);
+        supplierId = fixtures.supplier();
+        unitId = fixtures.unit();
+    }
+
+    @Test
+    void submissionReservesAndTheFormShowsWhatIsLeft() {
+        Integer budgetCodeId = fixtures.budgetCode(department, "10000.00");
+
+        Integer requestId = submit(budgetCodeId, "2500.00");
+
+        assertEquals("Pending", purchaseRequestRepository.findById(requestId).orElseThrow().getStatus());
+        assertAmount("2500.00", reserved(budgetCodeId));
+        assertAmount("7500.00", purchaseRequestService.getNewRequestFormData(employee.getEmail())
+                .getAvailableBudgets().get(budgetCodeId));
+        // Only consumption moves the balance
+        assertAmount("10000.00", budgetCodeRepository.findBudgetAmount(budgetCodeId));
+    }
+
+    @Test
+    void resubmissionMovesTheReservationToTheEditedBudgetCode() {
+        Integer original = fixtures.budgetCode(department, "10000.00");
+        Integer edited = fixtures.budgetCode(department, "10000.00");
+        Integer requestId = submit(original, "2500.00");
+
+        approvalService.returnForEdit(requestId, manager.getEmail(), "Use the other budget");
+        assertAmount("0", reserved(original));
+
+        purchaseRequestService.updateRequest(requestId, form(edited, "4000.00"), employee.getEmail(), List.of());
+
+        assertAmount("0", reserved(original));
+        assertAmount("4000.00", reserved(edited));
+    }
+
+    @Test
+    void rejectionReleasesTheReservation() {
+        Integer budgetCodeId = fixtures.budgetCode(department, "10000.00");
+        Integer requestId = submit(budgetCodeId, "2500.00");
+
+        approvalService.processDecision(requestId, manager.getEmail(), "reject", "Not needed");
+
+        assertAmount("0", reserved(budgetCodeId));
+        assertAmount("10000.00", budgetCodeRepository.findBudgetAmount(budgetCodeId));
+    }
+
+    @Test
+    void finalApprovalConsumesAndReleasesTheReservation() {
+        Integer budgetCodeId = fixtures.budgetCode(department, "10000.00");
+        Integer requestId = submit(budgetCodeId, "2500.00");
+
+        approvalService.processDecision(requestId, manager.getEmail(), "approve", null);
+        assertAmount("2500.00", reserved(budgetCodeId));
+        approvalService.processDecision(requestId, procurementManager.getEmail(), "approve", null);
+
+        assertEquals("Approved", purchaseRequestRepository.findById(requestId).orElseThrow().getStatus());
+        assertAmount("0", reserved(budgetCodeId));
+        assertAmount("7500.00", budgetCodeRepository.findBudgetAmount(budgetCodeId));
+    }
+
+    @Test
+    void reconcilePicksUpLedgerRowsWrittenElsewhere() {
+        Integer budgetCodeId = fixtures.budgetCode(department, "10000.00");
+        Integer requestId = submit(budgetCodeId, "2500.00");
+        assertAmount("2500.00", reserved(budgetCodeId));
+
+        // As another node would: straight to the ledger, bypassing this node's totals
+        BudgetLedgerEntry entry = new BudgetLedgerEntry();
+        entry.setBudgetCodeId(budgetCodeId);
+        entry.setRequestId(requestId);
+        entry.setEntryType(BudgetLedgerEntry.TYPE_RELEASE);
+        entry.setAmount(new BigDecimal("2500.00"));
+        entry.setCreatedAt(LocalDateTime.now());
+        budgetLedgerRepository.save(entry);
+        assertAmount("2500.00", reserved(budgetCodeId));
+
+        budgetReservationService.reconcile();
+
+        assertAmount("0", reserved(budgetCodeId));
+    }
+
+    @Test
+    void reconcileRacingACommitDoesNotCountItTwice() {
+        Integer budgetCodeId = fixtures.budgetCode(department, "10000.00");
+        Integer requestId = fixtures.request(employee, budgetCodeId, "2500.00", 1, "Pending");
+        reserved(budgetCodeId); // loaded, so the commit below adjusts a cached total
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // Registered first, so it runs after the commit but before the service applies its delta
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    CompletableFuture.runAsync(budgetReservationService::reconcile).join();
+                }
+            });
+            budgetReservationService.reserveForRequest(budgetCodeId, requestId, new BigDecimal("2500.00"), employee.getUserId());
+        });
+
+        assertAmount("2500.00", reserved(budgetCodeId));
+    }
+
+    private Integer submit(Integer budgetCodeId, String amount) {
+        return purchaseRequestService.saveNewRequest(form(budgetCodeId, amount), employee.getEmail(), List.of());
+    }
+
+    // One item of quantity one, in TRY
+    private PurchaseRequestFormDto form(Integer budgetCodeId, String amount) {
+        RequestItemFormDto item = new RequestItemFormDto();
+        item.setItemName("Laptop");
+        item.setQuantity(1);
+        item.setUnitPrice(new BigDecimal(amount));
+        item.setSupplierId(supplierId);
+        item.setUnitId(unitId);
+        PurchaseRequestFormDto form = new PurchaseRequestFormDto();
+        form.setBudgetCodeId(budgetCodeId);
+        form.setCurrencyId(fixtures.tryCurrency().getCurrencyId());
+        form.setItems(List.of(item));
+        return form;
+    }
+
+    private BigDecimal reserved(Integer budgetCodeId) {
+        return budgetReservationService.getReservedTotals(List.of(budgetCodeId)).get(budgetCodeId);
+    }
+
+    private static void assertAmount(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "expected " + expected + " but was " + actual);
+    }
+}
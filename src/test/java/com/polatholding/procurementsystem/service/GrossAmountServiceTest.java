@@ -0,0 +1,80 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.repository.DatabaseHelperRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * The JVM gross amount rule against what udf_CalculateGrossAmount stores: HALF_UP to the
+ * GrossAmount column scale, with the rate taken from the UDF when it can be read.
+ */
+class GrossAmountServiceTest {
+
+    private static final BigDecimal CONFIGURED_RATE = new BigDecimal("0.20");
+
+    @Test
+    void grossIsRoundedHalfUpToTwoDecimals() {
+        GrossAmountServiceImpl service = new GrossAmountServiceImpl(udf(net -> null), CONFIGURED_RATE, 0.0);
+
+        // equals() also compares scale, so every result must come back with exactly two decimals
+        assertEquals(new BigDecimal("120.00"), service.calculateGrossAmount(new BigDecimal("100")));
+        assertEquals(new BigDecimal("1.25"), service.calculateGrossAmount(new BigDecimal("1.0375"))); // 1.245, HALF_EVEN would give 1.24
+        assertEquals(new BigDecimal("12.05"), service.calculateGrossAmount(new BigDecimal("10.04")));
+        assertEquals(new BigDecimal("0.00"), service.calculateGrossAmount(new BigDecimal("0.001")));
+        assertNull(service.calculateGrossAmount(null));
+    }
+
+    @Test
+    void reloadTakesTheRateFromTheUdf() {
+        GrossAmountServiceImpl service = new GrossAmountServiceImpl(
+                udf(net -> net.multiply(new BigDecimal("1.18")).setScale(2)), CONFIGURED_RATE, 0.0);
+
+        service.reload();
+
+        assertEquals(0, new BigDecimal("0.18").compareTo(service.getStats().getVatRate()));
+        assertEquals("udf_CalculateGrossAmount", service.getStats().getRateSource());
+        assertEquals(new BigDecimal("118.00"), service.calculateGrossAmount(new BigDecimal("100.00")));
+    }
+
+    @Test
+    void anUnreadableUdfKeepsTheConfiguredRate() {
+        GrossAmountServiceImpl service = new GrossAmountServiceImpl(udf(net -> {
+            throw new DataAccessResourceFailureException("database down");
+        }), CONFIGURED_RATE, 0.0);
+
+        service.reload();
+
+        assertEquals(CONFIGURED_RATE, service.getStats().getVatRate());
+        assertEquals("configuration", service.getStats().getRateSource());
+        assertEquals(new BigDecimal("120.00"), service.calculateGrossAmount(new BigDecimal("100.00")));
+    }
+
+    @Test
+    void sampledCalculationsCountMismatchesWithTheUdf() {
+        GrossAmountServiceImpl service = new GrossAmountServiceImpl(
+                udf(net -> net.multiply(new BigDecimal("1.18")).setScale(2)), CONFIGURED_RATE, 1.0);
+
+        service.calculateGrossAmount(new BigDecimal("100.00"));
+
+        assertEquals(1, service.getStats().getVerifiedSamples());
+        assertEquals(1, service.getStats().getMismatches());
+    }
+
+    // Only calculateGrossAmount is used by the service
+    private static DatabaseHelperRepository udf(UnaryOperator<BigDecimal> grossOf) {
+        return (DatabaseHelperRepository) Proxy.newProxyInstance(GrossAmountServiceTest.class.getClassLoader(),
+                new Class<?>[]{DatabaseHelperRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("calculateGrossAmount")) {
+                        return grossOf.apply((BigDecimal) args[0]);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,51 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.model.OutboxEvent;
+import com.polatholding.procurementsystem.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The outbox purge removes only events delivered before the retention period; anything still
+ * pending or given up on stays for the dispatcher and for whoever investigates.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OutboxRetentionTest {
+
+    @Autowired private OutboxService outboxService;
+    @Autowired private OutboxEventRepository outboxEventRepository;
+
+    @Test
+    void purgeKeepsRecentPendingAndDeadEvents() {
+        LocalDateTime longAgo = LocalDateTime.now().minusDays(30);
+        Long expired = save(longAgo, longAgo, 1);
+        Long recent = save(longAgo, LocalDateTime.now().minusHours(1), 1);
+        Long pending = save(longAgo, null, 0);
+        Long dead = save(longAgo, null, 5);
+
+        assertTrue(outboxService.purgeProcessed() >= 1);
+
+        assertFalse(outboxEventRepository.existsById(expired));
+        assertTrue(outboxEventRepository.existsById(recent));
+        assertTrue(outboxEventRepository.existsById(pending));
+        assertTrue(outboxEventRepository.existsById(dead));
+    }
+
+    private Long save(LocalDateTime createdAt, LocalDateTime processedAt, int attempts) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(OutboxServiceImpl.EVENT_HISTORY);
+        event.setPayload("{}");
+        event.setCreatedAt(createdAt);
+        event.setProcessedAt(processedAt);
+        event.setAttempts(attempts);
+        return outboxEventRepository.save(event).getOutboxEventId();
+    }
+}
@@ -0,0 +1,143 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.repository.DatabaseHelperRepository;
+import com.polatholding.procurementsystem.repository.RequestHistoryRepository;
+import com.polatholding.procurementsystem.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The batched history writer against a real schema: when a batch is written, and that a failed
+ * batch is retried without writing any row twice.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RequestHistoryWriterTest {
+
+    private static final int BATCH_SIZE = 3;
+    private static final long NO_TIMED_FLUSH = 3_600_000;
+
+    @Autowired private RequestHistoryRepository requestHistoryRepository;
+    @Autowired private UserRepository userRepository;
+    @Autowired private DatabaseHelperRepository dbHelper;
+    @Autowired private CurrentUserService currentUserService;
+    @Autowired private PlatformTransactionManager transactionManager;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    // RequestHistory.RequestID has no foreign key, so each test counts its own rows under a fresh id
+    private final int requestId = ThreadLocalRandom.current().nextInt(1_000_000, Integer.MAX_VALUE);
+    private RequestHistoryServiceImpl writer;
+
+    @AfterEach
+    void stopWriter() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    void entriesWaitForAFullBatchOrAnExplicitFlush() {
+        writer = newWriter(dbHelper, 100);
+        writer.logAction(requestId, (Integer) null, "Created", "first");
+        writer.logAction(requestId, (Integer) null, "Updated", "second");
+        assertEquals(0, countRows());
+
+        writer.flush();
+        assertEquals(2, countRows());
+    }
+
+    @Test
+    void aFullBatchIsWrittenInTheBackground() throws InterruptedException {
+        writer = newWriter(dbHelper, 100);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            writer.logAction(requestId, (Integer) null, "Updated", "entry " + i);
+        }
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (countRows() < BATCH_SIZE && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(BATCH_SIZE, countRows());
+    }
+
+    @Test
+    void aBadRowIsDroppedAndTheRestWrittenOnce() {
+        writer = newWriter(dbHelper, 100);
+        writer.logAction(requestId, (Integer) null, "Created", "kept");
+        writer.logAction(requestId, (Integer) null, null, "Action is NOT NULL"); // fails the whole JDBC batch
+        writer.logAction(requestId, (Integer) null, "Updated", "kept");
+
+        writer.flush();
+        assertEquals(2, countRows());
+    }
+
+    @Test
+    void aFailedBatchIsRequeuedWithoutDuplicates() {
+        AtomicInteger failuresLeft = new AtomicInteger(1);
+        // Writes the rows, then fails as a dropped connection would before the commit
+        writer = newWriter(interceptInsert(() -> {
+            if (failuresLeft.getAndDecrement() > 0) {
+                throw new TransientDataAccessResourceException("connection reset");
+            }
+        }), 100);
+        writer.logAction(requestId, (Integer) null, "Created", "first");
+        writer.logAction(requestId, (Integer) null, "Updated", "second");
+
+        assertThrows(IllegalStateException.class, writer::flush);
+        assertEquals(0, countRows());
+
+        writer.flush();
+        assertEquals(2, countRows());
+    }
+
+    @Test
+    void aFullQueueWithAFailingDatabaseDoesNotThrowToTheCaller() {
+        writer = newWriter(interceptInsert(() -> {
+            throw new TransientDataAccessResourceException("database down");
+        }), 1);
+        assertDoesNotThrow(() -> {
+            writer.logAction(requestId, (Integer) null, "Created", "queued");
+            writer.logAction(requestId, (Integer) null, "Updated", "dropped");
+        });
+    }
+
+    private RequestHistoryServiceImpl newWriter(DatabaseHelperRepository helper, int queueCapacity) {
+        return new RequestHistoryServiceImpl(requestHistoryRepository, userRepository, helper, currentUserService,
+                transactionManager, BATCH_SIZE, NO_TIMED_FLUSH, queueCapacity);
+    }
+
+    // The real repository, with afterInsert run after every insertRequestHistory call
+    private DatabaseHelperRepository interceptInsert(Runnable afterInsert) {
+        return (DatabaseHelperRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{DatabaseHelperRepository.class}, (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(dbHelper, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (method.getName().equals("insertRequestHistory")) {
+                        afterInsert.run();
+                    }
+                    return result;
+                });
+    }
+
+    private int countRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM RequestHistory WHERE RequestID = ?", Integer.class, requestId);
+    }
+}
@@ -0,0 +1,187 @@
+package com.polatholding.procurementsystem.service;
+
+import com.polatholding.procurementsystem.config.security.CustomUserDetails;
+import com.polatholding.procurementsystem.model.*;
+import com.polatholding.procurementsystem.repository.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Seeds the rows the integration tests share. Every method commits its own transaction, and
+ * names and codes carry a JVM-wide sequence number so tests never collide on them.
+ */
+@Component
+public class TestFixtures {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private final TransactionTemplate tx;
+    private final RoleRepository roleRepository;
+    private final DepartmentRepository departmentRepository;
+    private final UserRepository userRepository;
+    private final ApprovalStepRepository approvalStepRepository;
+    private final CurrencyRepository currencyRepository;
+    private final BudgetCodeRepository budgetCodeRepository;
+    private final PurchaseRequestRepository purchaseRequestRepository;
+    private final SupplierRepository supplierRepository;
+    private final UnitRepository unitRepository;
+    private final ApprovalWorkflowService approvalWorkflowService;
+
+    public TestFixtures(PlatformTransactionManager transactionManager, RoleRepository roleRepository,
+                        DepartmentRepository departmentRepository, UserRepository userRepository,
+                        ApprovalStepRepository approvalStepRepository, CurrencyRepository currencyRepository,
+                        BudgetCodeRepository budgetCodeRepository, PurchaseRequestRepository purchaseRequestRepository,
+                        SupplierRepository supplierRepository, UnitRepository unitRepository,
+                        ApprovalWorkflowService approvalWorkflowService) {
+        this.tx = new TransactionTemplate(transactionManager);
+        this.roleRepository = roleRepository;
+        this.departmentRepository = departmentRepository;
+        this.userRepository = userRepository;
+        this.approvalStepRepository = approvalStepRepository;
+        this.currencyRepository = currencyRepository;
+        this.budgetCodeRepository = budgetCodeRepository;
+        this.purchaseRequestRepository = purchaseRequestRepository;
+        this.supplierRepository = supplierRepository;
+        this.unitRepository = unitRepository;
+        this.approvalWorkflowService = approvalWorkflowService;
+    }
+
+    public static String unique(String prefix) {
+        return prefix + "-" + SEQUENCE.incrementAndGet();
+    }
+
+    public Role role(String name) {
+        return tx.execute(status -> roleRepository.findAll().stream()
+                .filter(role -> name.equals(role.getRoleName()))
+                .findFirst()
+                .orElseGet(() -> {
+                    Role role = new Role();
+                    role.setRoleName(name);
+                    return roleRepository.save(role);
+                }));
+    }
+
+    // Manager, Procurement Manager, Director; recompiles the workflow, which startup compiled before the steps existed
+    public void approvalChain() {
+        tx.executeWithoutResult(status -> {
+            step(1, role("Manager"));
+            step(2, role("ProcurementManager"));
+            step(3, role("Director"));
+        });
+        approvalWorkflowService.reload();
+    }
+
+    private void step(int stepOrder, Role requiredRole) {
+        if (approvalStepRepository.findByStepOrder(stepOrder).isEmpty()) {
+            ApprovalStep step = new ApprovalStep();
+            step.setStepOrder(stepOrder);
+            step.setRequiredRole(requiredRole);
+            approvalStepRepository.save(step);
+        }
+    }
+
+    public Department department() {
+        return tx.execute(status -> {
+            Department department = new Department();
+            department.setDepartmentName(unique("Dept"));
+            return departmentRepository.save(department);
+        });
+    }
+
+    public void setManager(Department department, User manager) {
+        tx.executeWithoutResult(status -> {
+            department.setManagerUser(manager);
+            departmentRepository.saveAndFlush(department);
+        });
+    }
+
+    public User user(String prefix, Department department, Role... roles) {
+        return tx.execute(status -> {
+            User user = new User();
+            user.setFirstName(prefix);
+            user.setLastName("Test");
+            user.setEmail(unique(prefix) + "@example.com");
+            user.setPasswordHash("n/a");
+            user.setCreatedAt(LocalDateTime.now());
+            user.setDepartment(department);
+            user.setRoles(new HashSet<>(Arrays.asList(roles)));
+            return userRepository.save(user);
+        });
+    }
+
+    public Currency tryCurrency() {
+        return tx.execute(status -> currencyRepository.findAll().stream()
+                .filter(c -> "TRY".equals(c.getCurrencyCode()))
+                .findFirst()
+                .orElseGet(() -> {
+                    Currency c = new Currency();
+                    c.setCurrencyCode("TRY");
+                    c.setCurrencyName("Turkish Lira");
+                    return currencyRepository.save(c);
+                }));
+    }
+
+    public Integer budgetCode(Department department, String amount) {
+        return tx.execute(status -> {
+            BudgetCode budgetCode = new BudgetCode();
+            budgetCode.setCode(unique("BC"));
+            budgetCode.setYear(2026);
+            budgetCode.setBudgetAmount(new BigDecimal(amount));
+            budgetCode.setActive(true);
+            budgetCode.setDepartment(department);
+            return budgetCodeRepository.save(budgetCode).getBudgetCodeId();
+        });
+    }
+
+    public Integer supplier() {
+        return tx.execute(status -> {
+            Supplier supplier = new Supplier();
+            supplier.setSupplierName(unique("Supplier"));
+            supplier.setStatus("Active");
+            return supplierRepository.save(supplier).getSupplierId();
+        });
+    }
+
+    public Integer unit() {
+        return tx.execute(status -> {
+            Unit unit = new Unit();
+            unit.setUnitName(unique("Unit"));
+            return unitRepository.save(unit).getUnitId();
+        });
+    }
+
+    // A TRY request in the creator's department
+    public Integer request(User creator, Integer budgetCodeId, String netAmount, int level, String requestStatus) {
+        Currency currency = tryCurrency();
+        return tx.execute(status -> {
+            PurchaseRequest request = new PurchaseRequest();
+            request.setCreatedByUser(creator);
+            request.setDepartment(creator.getDepartment());
+            request.setBudgetCode(budgetCodeRepository.getReferenceById(budgetCodeId));
+            request.setCurrency(currency);
+            request.setNetAmount(new BigDecimal(netAmount));
+            request.setGrossAmount(new BigDecimal(netAmount));
+            request.setStatus(requestStatus);
+            request.setCurrentApprovalLevel(level);
+            request.setCreatedAt(LocalDateTime.now());
+            return purchaseRequestRepository.save(request).getRequestId();
+        });
+    }
+
+    // The principal login would build for the user holding exactly these roles
+    public static CustomUserDetails principal(User user, Role... roles) {
+        return new CustomUserDetails(user.getEmail(), "n/a",
+                Arrays.stream(roles).map(role -> new SimpleGrantedAuthority("ROLE_" + role.getRoleName())).toList(),
+                user.getUserId(), user.getDepartment().getDepartmentId(),
+                Arrays.stream(roles).collect(Collectors.toMap(Role::getRoleName, Role::getRoleId)), false);
+    }
+}